@@ -0,0 +1,20 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Run with {@code ./mvnw test -Dbenchmark -Dbenchmark.include=*BalanceContentionBenchmark}.
+ */
+@QuarkusTest
+class AtomicBalanceContentionBenchmark extends BalanceContentionBenchmark {
+
+    @Override
+    String mode() {
+        return "atomic";
+    }
+
+    @Override
+    boolean expectNoLostUpdates() {
+        return true;
+    }
+}
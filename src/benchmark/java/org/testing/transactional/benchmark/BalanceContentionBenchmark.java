@@ -0,0 +1,90 @@
+package org.testing.transactional.benchmark;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.repository.CardRepository;
+import org.testing.transactional.service.TransactionService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers a single card with concurrent purchases and reports throughput plus lost updates.
+ * Subclasses pick the balance update mode through a test profile.
+ */
+abstract class BalanceContentionBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int PURCHASES_PER_THREAD = 200;
+    private static final int INITIAL_BALANCE = THREADS * PURCHASES_PER_THREAD;
+
+    @Inject
+    BenchmarkData benchmarkData;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    CardRepository cardRepository;
+
+    abstract String mode();
+
+    abstract boolean expectNoLostUpdates();
+
+    @Test
+    void contendedCardPurchases() throws Exception {
+        String cardNo = benchmarkData.createCardWithBalance(INITIAL_BALANCE);
+
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    try {
+                        transactionService.cratePurchase(new TransactionDTO(cardNo, null, 1));
+                        succeeded.incrementAndGet();
+                    } catch (BusinessException | jakarta.persistence.PersistenceException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        int finalBalance = cardRepository.findBalanceByCardNo(cardNo).orElseThrow();
+        long lostUpdates = (INITIAL_BALANCE - succeeded.get()) - finalBalance;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode());
+        result.put("threads", THREADS);
+        result.put("ok", succeeded.get());
+        result.put("failed", failed.get());
+        result.put("opsPerSecond", succeeded.get() / (elapsedNanos / 1_000_000_000.0));
+        result.put("lostUpdates", lostUpdates);
+        BenchmarkHarness.report("balance-contention", result);
+
+        if (expectNoLostUpdates()) {
+            assertEquals(0, lostUpdates, "Atomic mode must never lose a debit");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.repository.TransactionRepository;
+import org.testing.transactional.service.TransactionService;
+import org.testing.transactional.sqlcount.TestData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk data for the benchmarks, on top of the users and cards of {@link TestData}.
+ * Large histories are persisted directly in chunks instead of posting one by one through the services.
+ */
+@ApplicationScoped
+public class BenchmarkData {
+
+    private static final int FLUSH_EVERY = 1_000;
+
+    @Inject
+    TestData testData;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    /**
+     * A new card topped up with {@code balance}.
+     */
+    public String createCardWithBalance(int balance) {
+        String cardNo = testData.createCard(testData.createUser());
+        transactionService.crateDirectTopup(TestData.operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, balance));
+        return cardNo;
+    }
+
+    /**
+     * A user with {@code cards} cards of {@code transactionsPerCard} successful purchases each.
+     */
+    public Long createUserWithHistory(int cards, int transactionsPerCard) {
+        Long userId = testData.createUser();
+        List<String> cardNos = new ArrayList<>();
+        for (int c = 0; c < cards; c++) {
+            cardNos.add(testData.createCard(userId));
+        }
+
+        for (String cardNo : cardNos) {
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (int i = 0; i < transactionsPerCard; i++) {
+                    Transaction trx = new Transaction(cardNo, 1, Transaction.TRX_TYPE_ENUM.PURCHASE.name());
+                    trx.setCardName("EXPRESI");
+                    trx.setCardType("DEBIT");
+                    trx.setStatus(Transaction.TRX_STATUS_ENUM.SUCCESS.name());
+                    transactionRepository.persist(trx);
+                    if ((i + 1) % FLUSH_EVERY == 0) {
+                        transactionRepository.flush();
+                        transactionRepository.getEntityManager().clear();
+                    }
+                }
+            });
+        }
+        return userId;
+    }
+}
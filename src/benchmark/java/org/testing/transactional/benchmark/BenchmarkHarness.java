@@ -0,0 +1,116 @@
+package org.testing.transactional.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Shared measuring and reporting for the benchmarks in this source root.
+ * Every result goes to the log and is appended as one JSON line to target/benchmark/&lt;benchmark&gt;.jsonl,
+ * so runs with different profiles (or before/after a change) can be compared afterwards.
+ */
+final class BenchmarkHarness {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BenchmarkHarness.class);
+    private static final Path RESULT_DIRECTORY = Path.of("target", "benchmark");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkHarness() {}
+
+    /**
+     * Runs {@code call} {@code warmup} times unmeasured, then {@code iterations} times measuring latency,
+     * bytes allocated by the calling thread and heap in use right after each call.
+     * A GC runs before every measured call so the heap figure is not carried over from the previous one.
+     */
+    static <T> Timing<T> measure(int warmup, int iterations, Supplier<T> call) {
+        for (int i = 0; i < warmup; i++) {
+            call.get();
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        Runtime runtime = Runtime.getRuntime();
+
+        long totalNanos = 0;
+        long maxNanos = 0;
+        long allocated = 0;
+        long maxHeapAfter = 0;
+        T last = null;
+        for (int i = 0; i < iterations; i++) {
+            System.gc();
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            last = call.get();
+            long elapsed = System.nanoTime() - start;
+            allocated += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            maxHeapAfter = Math.max(maxHeapAfter, runtime.totalMemory() - runtime.freeMemory());
+            totalNanos += elapsed;
+            maxNanos = Math.max(maxNanos, elapsed);
+        }
+        return new Timing<>(iterations, totalNanos, maxNanos, allocated, maxHeapAfter, last);
+    }
+
+    /**
+     * Logs one result and appends it to the result file of {@code benchmark}.
+     */
+    static void report(String benchmark, Map<String, Object> values) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("benchmark", benchmark);
+        line.put("time", LocalDateTime.now().toString());
+        line.putAll(values);
+        LOGGER.info("[{}] {}", benchmark, values);
+
+        try {
+            Files.createDirectories(RESULT_DIRECTORY);
+            Files.writeString(RESULT_DIRECTORY.resolve(benchmark + ".jsonl"),
+                    MAPPER.writeValueAsString(line) + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize benchmark result " + line, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write benchmark result of " + benchmark, e);
+        }
+    }
+
+    static <T> void report(String benchmark, Map<String, Object> values, Timing<T> timing) {
+        Map<String, Object> all = new LinkedHashMap<>(values);
+        all.putAll(timing.toMap());
+        report(benchmark, all);
+    }
+
+    record Timing<T>(int iterations, long totalNanos, long maxNanos, long allocatedBytes, long maxHeapBytes,
+                     T lastResult) {
+
+        double avgMs() {
+            return iterations == 0 ? 0.0 : totalNanos / 1_000_000.0 / iterations;
+        }
+
+        double maxMs() {
+            return maxNanos / 1_000_000.0;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("iterations", iterations);
+            values.put("avgMs", avgMs());
+            values.put("maxMs", maxMs());
+            values.put("allocatedMbPerCall", iterations == 0 ? 0.0 : allocatedBytes / (1024.0 * 1024.0) / iterations);
+            values.put("maxHeapMb", maxHeapBytes / (1024 * 1024));
+            return values;
+        }
+    }
+}
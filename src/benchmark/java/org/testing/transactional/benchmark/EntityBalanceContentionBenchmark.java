@@ -0,0 +1,32 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import java.util.Map;
+
+/**
+ * Baseline: the load / check / setBalance / flush path on the Card entity.
+ */
+@QuarkusTest
+@TestProfile(EntityBalanceContentionBenchmark.EntityBalanceUpdateProfile.class)
+class EntityBalanceContentionBenchmark extends BalanceContentionBenchmark {
+
+    @Override
+    String mode() {
+        return "entity";
+    }
+
+    @Override
+    boolean expectNoLostUpdates() {
+        return false;
+    }
+
+    public static class EntityBalanceUpdateProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("transaction.balance.atomic-update", "false");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import java.util.Map;
+
+/**
+ * Baseline: User, Card and Transaction entities loaded in three queries and grouped in memory.
+ */
+@QuarkusTest
+@TestProfile(EntityUserTransactionReadBenchmark.EntityReadProfile.class)
+class EntityUserTransactionReadBenchmark extends UserTransactionReadBenchmark {
+
+    @Override
+    String mode() {
+        return "entity";
+    }
+
+    public static class EntityReadProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("user.transaction.projection", "false");
+        }
+    }
+}
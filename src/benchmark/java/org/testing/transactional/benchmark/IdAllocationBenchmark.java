@@ -0,0 +1,79 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.model.IdBlockSizes;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.repository.TransactionRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts JDBC statements per inserted Transaction to show the NEXTVAL round trips saved by pooled-lo ids.
+ * With allocationSize = 1 every insert costs one extra sequence call; with a block of N it costs 1/N.
+ */
+@QuarkusTest
+@TestProfile(IdAllocationBenchmark.StatisticsProfile.class)
+class IdAllocationBenchmark {
+
+    private static final int INSERTS = 2_000;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @Test
+    void sequenceRoundTripsPerInsert() {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        List<Long> ids = new ArrayList<>(INSERTS);
+
+        long start = System.nanoTime();
+        QuarkusTransaction.requiringNew().run(() -> {
+            for (int i = 0; i < INSERTS; i++) {
+                Transaction trx = new Transaction("000000000000000", 1, Transaction.TRX_TYPE_ENUM.TOPUP.name());
+                trx.setCardName("BENCH");
+                trx.setStatus(Transaction.TRX_STATUS_ENUM.PENDING.name());
+                transactionRepository.persist(trx);
+                ids.add(trx.getId());
+            }
+        });
+        long elapsedNanos = System.nanoTime() - start;
+
+        long statements = statistics.getPrepareStatementCount();
+        double sequenceCallsPerInsert = (statements - INSERTS) / (double) INSERTS;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("inserts", INSERTS);
+        result.put("statements", statements);
+        result.put("sequenceCallsPerInsert", sequenceCallsPerInsert);
+        result.put("savedPerInsert", 1.0 - sequenceCallsPerInsert);
+        result.put("elapsedMs", elapsedNanos / 1_000_000.0);
+        BenchmarkHarness.report("id-allocation", result);
+
+        QuarkusTransaction.requiringNew().run(() -> transactionRepository.delete("id in ?1", ids));
+
+        assertTrue(sequenceCallsPerInsert <= 2.0 / IdBlockSizes.TRANSACTION,
+                "Expected at most one sequence call per block of " + IdBlockSizes.TRANSACTION + " inserts");
+    }
+
+    public static class StatisticsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("quarkus.hibernate-orm.statistics", "true");
+        }
+    }
+}
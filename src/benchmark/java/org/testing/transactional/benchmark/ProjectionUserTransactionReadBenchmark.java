@@ -0,0 +1,28 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import java.util.Map;
+
+/**
+ * Two scalar projection queries streamed straight into UserTransactionDTO (the default).
+ * The per-card history limit is switched off so both modes read the full history.
+ */
+@QuarkusTest
+@TestProfile(ProjectionUserTransactionReadBenchmark.FullHistoryProfile.class)
+class ProjectionUserTransactionReadBenchmark extends UserTransactionReadBenchmark {
+
+    @Override
+    String mode() {
+        return "projection";
+    }
+
+    public static class FullHistoryProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("user.transaction.history-limit", "0");
+        }
+    }
+}
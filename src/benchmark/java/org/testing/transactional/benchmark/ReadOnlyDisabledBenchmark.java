@@ -0,0 +1,28 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import java.util.Map;
+
+/**
+ * Baseline: the same read in a plain read-write transaction, as before @ReadOnlyTransaction.
+ */
+@QuarkusTest
+@TestProfile(ReadOnlyDisabledBenchmark.ReadOnlyDisabledProfile.class)
+class ReadOnlyDisabledBenchmark extends ReadOnlyTransactionBenchmark {
+
+    @Override
+    String mode() {
+        return "read-write";
+    }
+
+    public static class ReadOnlyDisabledProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("user.transaction.projection", "false",
+                    "transaction.read-only.enabled", "false");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import java.util.Map;
+
+/**
+ * Read-only session (no snapshots, MANUAL flush) on a read-only JDBC connection with row prefetch.
+ */
+@QuarkusTest
+@TestProfile(ReadOnlyEnabledBenchmark.ReadOnlyEnabledProfile.class)
+class ReadOnlyEnabledBenchmark extends ReadOnlyTransactionBenchmark {
+
+    @Override
+    String mode() {
+        return "read-only";
+    }
+
+    public static class ReadOnlyEnabledProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("user.transaction.projection", "false",
+                    "transaction.read-only.enabled", "true");
+        }
+    }
+}
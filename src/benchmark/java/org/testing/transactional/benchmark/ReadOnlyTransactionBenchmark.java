@@ -0,0 +1,46 @@
+package org.testing.transactional.benchmark;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.dto.UserTransactionDTO;
+import org.testing.transactional.service.UserService;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Loads a user with 5 cards x 20k transactions as managed entities through
+ * UserService.getUserTransaction (all rows, entity path) and reports latency, bytes allocated
+ * per call and heap in use right after it. Subclasses switch @ReadOnlyTransaction on or off
+ * through a test profile; with it off every entity gets a dirty-checking snapshot and is
+ * compared against it at commit.
+ */
+abstract class ReadOnlyTransactionBenchmark {
+
+    private static final int CARDS = 5;
+    private static final int TRANSACTIONS_PER_CARD = 20_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Inject
+    BenchmarkData benchmarkData;
+
+    @Inject
+    UserService userService;
+
+    abstract String mode();
+
+    @Test
+    void readLargeEntityList() {
+        Long userId = benchmarkData.createUserWithHistory(CARDS, TRANSACTIONS_PER_CARD);
+
+        BenchmarkHarness.Timing<UserTransactionDTO> timing =
+                BenchmarkHarness.measure(WARMUP, ITERATIONS, () -> userService.getUserTransaction(userId, 0));
+        long rows = timing.lastResult().getCards().stream().mapToLong(card -> card.getTransaction().size()).sum();
+
+        BenchmarkHarness.report("read-only-transaction", Map.of("mode", mode(), "rows", rows), timing);
+
+        assertEquals((long) CARDS * TRANSACTIONS_PER_CARD, rows);
+    }
+}
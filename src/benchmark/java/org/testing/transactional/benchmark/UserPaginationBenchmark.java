@@ -0,0 +1,93 @@
+package org.testing.transactional.benchmark;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.common.PaginationRequest;
+import org.testing.transactional.model.User;
+import org.testing.transactional.repository.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency of page 1 vs page 10,000 of the active user list in OFFSET and KEYSET mode.
+ * OFFSET has to read and discard every earlier row; KEYSET seeks straight to the cursor.
+ * Seeds enough active users on first run and keeps them for later runs.
+ */
+@QuarkusTest
+class UserPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 10_000;
+    private static final int REQUIRED_USERS = PAGE_SIZE * (DEEP_PAGE + 1);
+    private static final int FLUSH_EVERY = 1_000;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 20;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Test
+    void shallowVersusDeepPages() {
+        seedUsers();
+
+        // Cursor pointing right after page DEEP_PAGE - 1, built from the same ordering
+        PaginationRequest beforeDeep = offset(DEEP_PAGE - 1);
+        List<User> previousPage = QuarkusTransaction.requiringNew()
+                .call(() -> userRepository.findActiveUsersPaginated(beforeDeep).list());
+        String deepCursor = userRepository.nextCursor(previousPage, keyset(null));
+
+        List<Long> offsetDeepIds = ids(() -> userRepository.findActiveUsersPaginated(offset(DEEP_PAGE)).list());
+        List<Long> keysetDeepIds = ids(() -> userRepository.findActiveUsersPaginated(keyset(deepCursor)).list());
+        assertEquals(offsetDeepIds, keysetDeepIds, "Both modes must return the same rows for the deep page");
+
+        report("offset", 1, () -> userRepository.findActiveUsersPaginated(offset(0)).list());
+        report("offset", DEEP_PAGE + 1, () -> userRepository.findActiveUsersPaginated(offset(DEEP_PAGE)).list());
+        report("keyset", 1, () -> userRepository.findActiveUsersPaginated(keyset(null)).list());
+        report("keyset", DEEP_PAGE + 1, () -> userRepository.findActiveUsersPaginated(keyset(deepCursor)).list());
+    }
+
+    private void report(String mode, int page, Supplier<List<User>> query) {
+        BenchmarkHarness.Timing<List<User>> timing = BenchmarkHarness.measure(WARMUP, ITERATIONS,
+                () -> QuarkusTransaction.requiringNew().call(query::get));
+        BenchmarkHarness.report("user-pagination", Map.of("mode", mode, "page", page, "size", PAGE_SIZE), timing);
+    }
+
+    private List<Long> ids(Supplier<List<User>> query) {
+        return QuarkusTransaction.requiringNew().call(() -> query.get().stream().map(User::getId).toList());
+    }
+
+    private PaginationRequest offset(int page) {
+        return new PaginationRequest(page, PAGE_SIZE, "id", "ASC");
+    }
+
+    private PaginationRequest keyset(String cursor) {
+        PaginationRequest pagination = new PaginationRequest(0, PAGE_SIZE, "id", "ASC");
+        pagination.setKeyset(true);
+        pagination.setCursor(cursor);
+        return pagination;
+    }
+
+    private void seedUsers() {
+        long existing = QuarkusTransaction.requiringNew().call(() -> userRepository.count("active = true"));
+        long missing = REQUIRED_USERS - existing;
+        long prefix = System.nanoTime();
+        for (long done = 0; done < missing; done += FLUSH_EVERY * 10L) {
+            long from = done;
+            QuarkusTransaction.requiringNew().run(() -> {
+                for (long i = from; i < Math.min(from + FLUSH_EVERY * 10L, missing); i++) {
+                    userRepository.persist(new User("Page", "Bench", "page-" + prefix + "-" + i + "@example.com"));
+                    if ((i + 1) % FLUSH_EVERY == 0) {
+                        userRepository.flush();
+                        userRepository.getEntityManager().clear();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.testing.transactional.benchmark;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.dto.UserTransactionDTO;
+import org.testing.transactional.service.UserService;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Reads the history of a user with 10 cards x 10k transactions through UserService.getUserTransaction
+ * and reports latency per call. Subclasses pick the read path through a test profile.
+ */
+abstract class UserTransactionReadBenchmark {
+
+    private static final int CARDS = 10;
+    private static final int TRANSACTIONS_PER_CARD = 10_000;
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Inject
+    BenchmarkData benchmarkData;
+
+    @Inject
+    UserService userService;
+
+    abstract String mode();
+
+    @Test
+    void readUserWithManyTransactions() {
+        Long userId = benchmarkData.createUserWithHistory(CARDS, TRANSACTIONS_PER_CARD);
+
+        BenchmarkHarness.Timing<UserTransactionDTO> timing =
+                BenchmarkHarness.measure(WARMUP, ITERATIONS, () -> userService.getUserTransaction(userId));
+        long rows = timing.lastResult().getCards().stream().mapToLong(card -> card.getTransaction().size()).sum();
+
+        BenchmarkHarness.report("user-transaction-read", Map.of("mode", mode(), "cards", CARDS, "rows", rows), timing);
+
+        assertEquals((long) CARDS * TRANSACTIONS_PER_CARD, rows);
+    }
+}
@@ -0,0 +1,103 @@
+package org.testing.transactional.common;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.dto.UserDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiResponse construction and its JSON serialization, with an ObjectMapper set up like the
+ * one Quarkus REST uses (all modules found on the classpath, ISO dates).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseBenchmark {
+
+    @Param({"1", "20", "500"})
+    int pageSize;
+
+    private ObjectMapper objectMapper;
+    private TransactionDTO transaction;
+    private List<UserDTO> users;
+    private ApiResponse<TransactionDTO> transactionResponse;
+    private ApiResponse<List<UserDTO>> pageResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+
+        transaction = new TransactionDTO(1L, "EXPRESI", "123456789012345", "DEBIT", "987654321098765",
+                "PURCHASE", 25_000, 125_000, "SUCCESS", LocalDateTime.now(), LocalDateTime.now());
+        users = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            UserDTO user = new UserDTO("First" + i, "Last" + i, "user" + i + "@example.com");
+            user.setId((long) i);
+            users.add(user);
+        }
+        transactionResponse = ApiResponse.success(transaction, "Purchase successful");
+        pageResponse = page();
+    }
+
+    @Benchmark
+    public ApiResponse<TransactionDTO> buildSuccess() {
+        return ApiResponse.success(transaction, "Purchase successful");
+    }
+
+    @Benchmark
+    public ApiResponse<List<UserDTO>> buildPage() {
+        return page();
+    }
+
+    @Benchmark
+    public byte[] serializeSuccess() throws Exception {
+        return objectMapper.writeValueAsBytes(transactionResponse);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(pageResponse);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page());
+    }
+
+    private ApiResponse<List<UserDTO>> page() {
+        return ApiResponse.<List<UserDTO>>builder()
+                .responseCode(ResponseCode.SUCCESS.name())
+                .data(users)
+                .message("Users retrieved successfully")
+                .totalElements(10_000L)
+                .totalPages(10_000 / pageSize)
+                .currentPage(0)
+                .pageSize(pageSize)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package org.testing.transactional.mapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testing.transactional.dto.CardDTO;
+import org.testing.transactional.dto.UserDTO;
+import org.testing.transactional.model.Card;
+import org.testing.transactional.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mappers on detached entities, through the generated implementations (no CDI container).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private final UserMapper userMapper = new UserMapperImpl();
+    private final CardMapper cardMapper = new CardMapperImpl();
+
+    private User user;
+    private Card card;
+    private CardDTO cardDTO;
+
+    @State(Scope.Benchmark)
+    public static class UserList {
+
+        @Param({"20", "500"})
+        int size;
+
+        List<User> users;
+
+        @Setup
+        public void setUp() {
+            users = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                users.add(user(i));
+            }
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        user = user(1);
+        card = new Card("123456789012345", "EXPRESI", "DEBIT");
+        card.setId(1L);
+        card.setAccountNumber("987654321098765");
+        card.setBalance(150_000);
+        card.setStatus("ACTIVE");
+        card.setCreatedAt(LocalDateTime.now());
+        card.setUser(user);
+        cardDTO = cardMapper.toDTO(card);
+    }
+
+    @Benchmark
+    public UserDTO userToDTO() {
+        return userMapper.toDTO(user);
+    }
+
+    @Benchmark
+    public List<UserDTO> userToDTOList(UserList list) {
+        return userMapper.toDTOList(list.users);
+    }
+
+    @Benchmark
+    public CardDTO cardToDTO() {
+        return cardMapper.toDTO(card);
+    }
+
+    @Benchmark
+    public Card cardToEntity() {
+        return cardMapper.toEntity(cardDTO);
+    }
+
+    private static User user(int i) {
+        User user = new User("First" + i, "Last" + i, "user" + i + "@example.com");
+        user.setId((long) i);
+        user.setPhone("08123456789");
+        user.setDepartment("ENGINEERING");
+        user.setPosition("Engineer");
+        user.setSalary(10_000_000.0 + i);
+        user.setActive(true);
+        user.setCreatedAt(LocalDateTime.now());
+        user.setCreatedBy("benchmark");
+        user.setVersion(0L);
+        return user;
+    }
+}
@@ -0,0 +1,74 @@
+package org.testing.transactional.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.dto.UserTransactionDTO;
+import org.testing.transactional.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hand-written DTO assembly: TransactionService.mapToDTO for one posting and the grouping of
+ * UserService.getUserTransaction's projection rows (cards x rowsPerCard) into CardDTOs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoAssemblyBenchmark {
+
+    @Param({"10"})
+    int cards;
+
+    @Param({"20", "1000"})
+    int rowsPerCard;
+
+    private Transaction transaction;
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        transaction = new Transaction("123456789012345", 25_000, Transaction.TRX_TYPE_ENUM.PURCHASE.name());
+        transaction.setId(1L);
+        transaction.setCardName("EXPRESI");
+        transaction.setCardType("DEBIT");
+        transaction.setAccountNumber("987654321098765");
+        transaction.setStatus(Transaction.TRX_STATUS_ENUM.SUCCESS.name());
+        transaction.setCreatedAt(LocalDateTime.now());
+
+        // Sama seperti streamCardTransactions: cardNo, accountNumber, balance, cardType, trxType, amount, status
+        rows = new ArrayList<>(cards * rowsPerCard);
+        for (int c = 0; c < cards; c++) {
+            String cardNo = String.format("%015d", c);
+            for (int i = 0; i < rowsPerCard; i++) {
+                rows.add(new Object[]{cardNo, "987654321098765", 150_000, "DEBIT",
+                        Transaction.TRX_TYPE_ENUM.PURCHASE.name(), 1_000 + i, Transaction.TRX_STATUS_ENUM.SUCCESS.name()});
+            }
+        }
+    }
+
+    @Benchmark
+    public TransactionDTO transactionMapToDTO() {
+        return TransactionService.mapToDTO(transaction, 125_000);
+    }
+
+    @Benchmark
+    public List<UserTransactionDTO.CardDTO> userTransactionAssembly() {
+        return UserService.groupCardRows(rows.iterator());
+    }
+}
@@ -0,0 +1,48 @@
+package org.testing.transactional.utils;
+
+import org.jboss.logmanager.LogContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Generator.accountNumber (SecureRandom, 15 digits) and Validation.checkLength.
+ * Logging is switched off, so checkLength measures the check plus building its log message,
+ * not the console write it does in the application.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UtilsBenchmark {
+
+    private String cardNo;
+
+    @Setup
+    public void setUp() {
+        LogContext.getLogContext().getLogger("").setLevel(Level.OFF);
+        cardNo = Generator.accountNumber();
+    }
+
+    @Benchmark
+    public String accountNumber() {
+        return Generator.accountNumber();
+    }
+
+    @Benchmark
+    public boolean checkLength() {
+        return Validation.checkLength(cardNo);
+    }
+}
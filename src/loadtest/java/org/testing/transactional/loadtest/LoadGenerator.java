@@ -0,0 +1,166 @@
+package org.testing.transactional.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Open-loop HTTP load generator. Requests start on a fixed schedule (rate per second) however slow
+ * the responses are, and every latency is taken from the request's intended start time, so time
+ * spent queued behind a slow response is counted instead of silently skipped (coordinated omission).
+ * Operations are picked at random by weight; latencies go into one HdrHistogram per operation.
+ */
+final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    /**
+     * One kind of request; {@code request} builds a fresh request from the caller's random source.
+     */
+    record Operation(String name, int weight, Function<Random, HttpRequest> request) {
+    }
+
+    private static final class Stats {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+    LoadGenerator(List<Operation> operations, int maxInFlight) {
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        operations.forEach(operation -> stats.put(operation.name(), new Stats()));
+    }
+
+    /**
+     * Sends {@code rate} requests per second for {@code duration} and waits for the last response.
+     * With {@code record} false (warm-up) nothing is recorded.
+     */
+    void run(int rate, Duration duration, boolean record) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toNanos() / interval;
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intended = start + i * interval;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Random random = ThreadLocalRandom.current();
+            Operation operation = pick(random);
+            HttpRequest request = operation.request().apply(random);
+            // Penuh: pengiriman tertunda, tapi latency tetap dihitung dari jadwal semula
+            inFlight.acquire();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                inFlight.release();
+                if (record) {
+                    record(stats.get(operation.name()), intended, response, error);
+                }
+            });
+        }
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    long requests() {
+        return stats.values().stream().mapToLong(s -> s.ok.sum() + s.rejected.sum() + s.errors.sum()).sum();
+    }
+
+    long errors() {
+        return stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+    }
+
+    /**
+     * Prints one line per operation plus a total, and writes each histogram as a percentile
+     * distribution (milliseconds, .hgrm) into {@code directory}.
+     */
+    void report(PrintStream out, Duration duration, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        out.printf("%-14s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "ok", "rejected", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Histogram latency = s.latency.copy();
+            total.add(latency);
+            print(out, entry.getKey(), s.ok.sum(), s.rejected.sum(), s.errors.sum(), latency, duration);
+            write(latency, directory.resolve(entry.getKey() + ".hgrm"));
+        }
+        print(out, "all", stats.values().stream().mapToLong(s -> s.ok.sum()).sum(),
+                stats.values().stream().mapToLong(s -> s.rejected.sum()).sum(), errors(), total, duration);
+        write(total, directory.resolve("all.hgrm"));
+    }
+
+    private Operation pick(Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static void record(Stats s, long intended, HttpResponse<Void> response, Throwable error) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+        s.latency.recordValue(Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE_MICROS));
+        if (error != null || response.statusCode() >= 500) {
+            s.errors.increment();
+        } else if (response.statusCode() >= 400) {
+            // Penolakan bisnis (saldo kurang, kartu duplikat): jawaban yang sah
+            s.rejected.increment();
+        } else {
+            s.ok.increment();
+        }
+    }
+
+    private static void print(PrintStream out, String name, long ok, long rejected, long errors,
+                              Histogram latency, Duration duration) {
+        out.printf("%-14s %9d %9d %9d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, ok, rejected, errors,
+                (ok + rejected + errors) / (double) duration.toSeconds(),
+                latency.getValueAtPercentile(50) / 1000.0,
+                latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0,
+                latency.getMaxValue() / 1000.0);
+    }
+
+    private static void write(Histogram latency, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
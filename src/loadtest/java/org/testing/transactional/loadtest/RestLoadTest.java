@@ -0,0 +1,229 @@
+package org.testing.transactional.loadtest;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.dto.CardDTO;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.dto.UserDTO;
+import org.testing.transactional.dto.UserImportResultDTO;
+import org.testing.transactional.service.CardService;
+import org.testing.transactional.service.IdempotencyService;
+import org.testing.transactional.service.TransactionService;
+import org.testing.transactional.service.UserBulkImportService;
+import org.testing.transactional.utils.Generator;
+
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test of the REST endpoints, run with the loadtest profile:
+ * <pre>
+ * ./mvnw test -Dh2 -Dloadtest -Dloadtest.rate=500 -Dloadtest.duration=60s
+ * </pre>
+ * Seeds loadtest.users users with loadtest.cards-per-user funded cards, warms up, then drives
+ * open-loop traffic at loadtest.rate requests per second with the weights of loadtest.mix.
+ * A loadtest.hot-fraction share of the card traffic goes to the first loadtest.hot-cards cards.
+ * Prints p50/p99/p999 per operation, writes .hgrm files to target/loadtest, and at the end
+ * checks that every card's balance is non-negative and equals its ledger of SUCCESS transactions.
+ */
+@QuarkusTest
+class RestLoadTest {
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    @Inject
+    UserBulkImportService userBulkImportService;
+
+    @Inject
+    CardService cardService;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "loadtest.users", defaultValue = "1000")
+    int users;
+
+    @ConfigProperty(name = "loadtest.cards-per-user", defaultValue = "2")
+    int cardsPerUser;
+
+    @ConfigProperty(name = "loadtest.initial-balance", defaultValue = "10000000")
+    int initialBalance;
+
+    @ConfigProperty(name = "loadtest.rate", defaultValue = "200")
+    int rate;
+
+    @ConfigProperty(name = "loadtest.duration", defaultValue = "60s")
+    Duration duration;
+
+    @ConfigProperty(name = "loadtest.warmup", defaultValue = "10s")
+    Duration warmup;
+
+    @ConfigProperty(name = "loadtest.max-in-flight", defaultValue = "512")
+    int maxInFlight;
+
+    // operation:weight, operations: purchase, direct-topup, topup, user, card-create
+    @ConfigProperty(name = "loadtest.mix", defaultValue = "purchase:50,direct-topup:20,topup:5,user:20,card-create:5")
+    List<String> mix;
+
+    @ConfigProperty(name = "loadtest.hot-cards", defaultValue = "10")
+    int hotCards;
+
+    @ConfigProperty(name = "loadtest.hot-fraction", defaultValue = "0.5")
+    double hotFraction;
+
+    @ConfigProperty(name = "loadtest.max-error-rate", defaultValue = "0.01")
+    double maxErrorRate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<String> cardNos = new ArrayList<>();
+
+    @Test
+    void restEndpoints() throws Exception {
+        seed();
+
+        LoadGenerator generator = new LoadGenerator(operations(), maxInFlight);
+        generator.run(rate, warmup, false);
+        generator.run(rate, duration, true);
+
+        System.out.printf("[loadtest] rate=%d/s duration=%s users=%d cards=%d hotCards=%d hotFraction=%.2f mix=%s%n",
+                rate, duration, userIds.size(), cardNos.size(), hotCards, hotFraction, mix);
+        generator.report(System.out, duration, Path.of("target", "loadtest"));
+
+        List<String> violations = balanceViolations();
+        assertTrue(violations.isEmpty(), "Balance invariant violated:\n" + String.join("\n", violations));
+        assertTrue(generator.errors() <= generator.requests() * maxErrorRate,
+                generator.errors() + " of " + generator.requests() + " requests failed");
+    }
+
+    private void seed() {
+        long start = System.nanoTime();
+        List<UserDTO> dtos = new ArrayList<>(users);
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int i = 0; i < users; i++) {
+            UserDTO user = new UserDTO("Load", "User" + i, "load-" + run + "-" + i + "@example.com");
+            user.setDepartment("LOAD" + (i % 10));
+            dtos.add(user);
+        }
+        for (UserImportResultDTO result : userBulkImportService.importAll(dtos, "loadtest")) {
+            if (result.isSuccess()) {
+                userIds.add(result.getId());
+            }
+        }
+
+        for (Long userId : userIds) {
+            for (int c = 0; c < cardsPerUser; c++) {
+                CardDTO card = new CardDTO(Generator.accountNumber(), "EXPRESI", "DEBIT");
+                card.setUserId(userId);
+                String cardNo = cardService.createCard(card).getCardNo();
+                // Saldo awal lewat ledger juga, supaya invariant berlaku sejak awal
+                TransactionDTO funding = new TransactionDTO();
+                funding.setCardNo(cardNo);
+                funding.setAmount(initialBalance);
+                transactionService.crateDirectTopup(funding);
+                cardNos.add(cardNo);
+            }
+        }
+        System.out.printf("[loadtest] seeded %d users and %d cards in %d ms%n",
+                userIds.size(), cardNos.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<LoadGenerator.Operation> operations() {
+        List<LoadGenerator.Operation> operations = new ArrayList<>();
+        for (String entry : mix) {
+            String[] parts = entry.trim().split(":");
+            String name = parts[0];
+            int weight = Integer.parseInt(parts[1]);
+            if (weight <= 0) {
+                continue;
+            }
+            operations.add(new LoadGenerator.Operation(name, weight, switch (name) {
+                case "purchase" -> random -> posting("/api/transaction/purchase", random, 1 + random.nextInt(1_000));
+                case "direct-topup" -> random -> posting("/api/transaction/direct-topup", random, 1 + random.nextInt(1_000));
+                case "topup" -> random -> posting("/api/transaction/topup", random, 1 + random.nextInt(1_000));
+                case "user" -> random -> HttpRequest.newBuilder(uri("/api/users/" + userIds.get(random.nextInt(userIds.size()))))
+                        .GET()
+                        .build();
+                case "card-create" -> random -> json("/api/cards/create", null,
+                        "{\"cardNo\":\"" + Generator.accountNumber() + "\",\"cardName\":\"EXPRESI\",\"cardType\":\"DEBIT\","
+                                + "\"userId\":" + userIds.get(random.nextInt(userIds.size())) + "}");
+                default -> throw new IllegalArgumentException("Unknown loadtest.mix operation: " + name);
+            }));
+        }
+        return operations;
+    }
+
+    private HttpRequest posting(String path, Random random, int amount) {
+        return json(path, UUID.randomUUID().toString(),
+                "{\"cardNo\":\"" + card(random) + "\",\"amount\":" + amount + "}");
+    }
+
+    /**
+     * A hot card with probability hot-fraction, otherwise any seeded card.
+     */
+    private String card(Random random) {
+        int hot = Math.min(hotCards, cardNos.size());
+        if (hot > 0 && random.nextDouble() < hotFraction) {
+            return cardNos.get(random.nextInt(hot));
+        }
+        return cardNos.get(random.nextInt(cardNos.size()));
+    }
+
+    private HttpRequest json(String path, String idempotencyKey, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (idempotencyKey != null) {
+            request.header(IdempotencyService.HEADER, idempotencyKey);
+        }
+        return request.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl.toString().replaceAll("/$", "") + path);
+    }
+
+    /**
+     * Seeded cards whose balance is negative or differs from DIRECT_TOP + settled TOPUP - PURCHASE.
+     */
+    private List<String> balanceViolations() {
+        List<String> violations = new ArrayList<>();
+        for (int from = 0; from < cardNos.size(); from += 1000) {
+            List<String> chunk = cardNos.subList(from, Math.min(from + 1000, cardNos.size()));
+            List<Object[]> rows = QuarkusTransaction.requiringNew().call(() -> entityManager.createQuery(
+                    "SELECT c.cardNo, c.balance, COALESCE(SUM(CASE "
+                            + "WHEN t.status = 'SUCCESS' AND t.transactionType IN ('DIRECT_TOP', 'TOPUP') THEN t.amount "
+                            + "WHEN t.status = 'SUCCESS' AND t.transactionType = 'PURCHASE' THEN -t.amount "
+                            + "ELSE 0 END), 0) "
+                            + "FROM Card c LEFT JOIN Transaction t ON t.cardNo = c.cardNo "
+                            + "WHERE c.cardNo IN :cardNos GROUP BY c.cardNo, c.balance", Object[].class)
+                    .setParameter("cardNos", chunk)
+                    .getResultList());
+            for (Object[] row : rows) {
+                long balance = ((Number) row[1]).longValue();
+                long ledger = ((Number) row[2]).longValue();
+                if (balance < 0 || balance != ledger) {
+                    violations.add(row[0] + ": balance " + balance + ", ledger " + ledger);
+                }
+            }
+        }
+        return violations;
+    }
+}
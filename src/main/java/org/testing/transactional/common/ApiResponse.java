@@ -36,6 +36,12 @@ public class ApiResponse<T> {
     @JsonProperty("pageSize")
     private Integer pageSize;
 
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
+    @JsonProperty("totalApproximate")
+    private Boolean totalApproximate;
+
     @JsonProperty("errors")
     private List<String> errors;
 
@@ -157,6 +163,16 @@ public class ApiResponse<T> {
             return this;
         }
 
+        public Builder<T> nextCursor(String nextCursor) {
+            response.nextCursor = nextCursor;
+            return this;
+        }
+
+        public Builder<T> totalApproximate(Boolean totalApproximate) {
+            response.totalApproximate = totalApproximate;
+            return this;
+        }
+
         public Builder<T> errors(List<String> errors) {
             response.errors = errors;
             return this;
@@ -204,6 +220,14 @@ public class ApiResponse<T> {
         return pageSize;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Boolean getTotalApproximate() {
+        return totalApproximate;
+    }
+
     public List<String> getErrors() {
         return errors;
     }
@@ -0,0 +1,59 @@
+package org.testing.transactional.common;
+
+import org.testing.transactional.exeption.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort key and id of the last row of a page, plus the ordering it was
+ * produced with. Encoded as URL-safe Base64 so clients treat it as a token, never as a page number.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final boolean ascending;
+    private final long id;
+    private final String value;
+
+    public KeysetCursor(String sortBy, boolean ascending, long id, String value) {
+        this.sortBy = sortBy;
+        this.ascending = ascending;
+        this.id = id;
+        this.value = value;
+    }
+
+    public String encode() {
+        String raw = sortBy + SEPARATOR + (ascending ? "ASC" : "DESC") + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // value is last and may itself contain the separator
+            String[] parts = raw.split("\\|", 4);
+            return new KeysetCursor(parts[0], "ASC".equals(parts[1]), Long.parseLong(parts[2]), parts[3]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new BusinessException("Invalid pagination cursor", ResponseCode.VALIDATION_ERROR.name());
+        }
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
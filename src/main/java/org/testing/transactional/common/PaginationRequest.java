@@ -1,21 +1,45 @@
 package org.testing.transactional.common;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
+/**
+ * Paging parameters. Two modes:
+ * OFFSET (default) - page/size, simple but the database reads and discards page * size rows first;
+ * KEYSET - size plus an opaque cursor from the previous page, translated into a seek predicate
+ * on (sort key, id) so every page costs the same however deep it is. page is ignored in this mode.
+ * totalMode decides what the total costs: EXACT (default) rides on the page query as COUNT(*) OVER (),
+ * APPROXIMATE serves a cached count refreshed in the background, NONE skips it.
+ */
 public class PaginationRequest {
 
+    public enum TotalMode {
+        NONE,        // tanpa total
+        EXACT,       // total dihitung dalam query halaman yang sama
+        APPROXIMATE  // total dari cache, boleh sedikit basi
+    }
+
+    public static final int MAX_PAGE_SIZE = 500;
+
     @NotNull(message = "Page number cannot be null")
     @Min(value = 0, message = "Page number must be greater than or equal to 0")
     private Integer page = 0;
 
     @NotNull(message = "Page size cannot be null")
     @Min(value = 1, message = "Page size must be greater than 0")
+    @Max(value = MAX_PAGE_SIZE, message = "Page size must not exceed " + MAX_PAGE_SIZE)
     private Integer size = 20;
 
     private String sortBy;
     private String sortDirection = "ASC";
 
+    // Keyset mode: cursor kosong = halaman pertama
+    private boolean keyset;
+    private String cursor;
+
+    private TotalMode totalMode = TotalMode.EXACT;
+
     // Default constructor
     public PaginationRequest() {}
 
@@ -65,9 +89,44 @@ public class PaginationRequest {
         this.sortDirection = sortDirection;
     }
 
+    public boolean isKeyset() {
+        return keyset || hasCursor();
+    }
+
+    public void setKeyset(boolean keyset) {
+        this.keyset = keyset;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public TotalMode getTotalMode() {
+        return totalMode;
+    }
+
+    public void setTotalMode(TotalMode totalMode) {
+        this.totalMode = totalMode == null ? TotalMode.EXACT : totalMode;
+    }
+
     // Helper methods
     public int getOffset() {
-        return page * size;
+        return page * getEffectiveSize();
+    }
+
+    /**
+     * Requested size capped at {@link #MAX_PAGE_SIZE}, also when bean validation was bypassed.
+     */
+    public int getEffectiveSize() {
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public boolean hasCursor() {
+        return cursor != null && !cursor.isBlank();
     }
 
     public boolean hasSorting() {
@@ -80,7 +139,7 @@ public class PaginationRequest {
 
     @Override
     public String toString() {
-        return String.format("PaginationRequest{page=%d, size=%d, sortBy='%s', sortDirection='%s'}",
-                page, size, sortBy, sortDirection);
+        return String.format("PaginationRequest{page=%d, size=%d, sortBy='%s', sortDirection='%s', keyset=%s, cursor='%s', totalMode=%s}",
+                page, size, sortBy, sortDirection, isKeyset(), cursor, totalMode);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.testing.transactional.common;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Query-only method: joins the caller's transaction as it is, otherwise runs in its own read-only
+ * transaction (see {@link ReadOnlyTransactionInterceptor}). Used instead of {@code @Transactional},
+ * never together with it. Entities loaded in such a method must not be modified.
+ * <p>
+ * Not meant for cache-backed methods: the transaction and the connection settings cost a pooled
+ * connection on every call, a cache hit included.
+ */
+@InterceptorBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlyTransaction {
+}
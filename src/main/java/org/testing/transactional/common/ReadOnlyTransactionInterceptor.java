@@ -0,0 +1,130 @@
+package org.testing.transactional.common;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Runs {@link ReadOnlyTransaction} methods that are not called from another transaction in a new
+ * transaction whose session loads every entity read-only (no snapshot for dirty checking), never
+ * flushes (MANUAL) and whose JDBC connection is marked read-only with a larger row prefetch
+ * (fetch-size, Oracle only) for long result lists. The connection is reset before commit.
+ * The Oracle driver is reached reflectively, so other datasources (H2 in tests) need no ojdbc.
+ * <p>
+ * A call from inside another transaction joins it unchanged, so entities the caller is about to
+ * modify are never turned read-only. With transaction.read-only.enabled=false the method simply
+ * runs in a plain read-write transaction (REQUIRED).
+ */
+@ReadOnlyTransaction
+@Interceptor
+// Slot yang sama dengan @Transactional; keduanya tidak pernah dipakai bersamaan
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 200)
+public class ReadOnlyTransactionInterceptor {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionSynchronizationRegistry synchronizationRegistry;
+
+    @ConfigProperty(name = "transaction.read-only.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction.read-only.fetch-size", defaultValue = "500")
+    int fetchSize;
+
+    @AroundInvoke
+    Object readOnly(InvocationContext context) throws Exception {
+        if (synchronizationRegistry.getTransactionStatus() != Status.STATUS_NO_TRANSACTION) {
+            return context.proceed();
+        }
+        return QuarkusTransaction.requiringNew()
+                .call(() -> enabled ? proceedReadOnly(context) : context.proceed());
+    }
+
+    private Object proceedReadOnly(InvocationContext context) throws Exception {
+        // Session baru per transaksi, jadi flag session tidak perlu dikembalikan
+        Session session = entityManager.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+
+        int[] previousPrefetch = {-1};
+        session.doWork(connection -> {
+            connection.setReadOnly(true);
+            Connection oracle = oracle(connection);
+            if (oracle != null) {
+                previousPrefetch[0] = (int) OracleDriver.invoke(OracleDriver.GET_PREFETCH, oracle);
+                OracleDriver.invoke(OracleDriver.SET_PREFETCH, oracle, fetchSize);
+            }
+        });
+        try {
+            return context.proceed();
+        } finally {
+            // Koneksi kembali ke pool setelah commit, jadi harus bersih lagi
+            session.doWork(connection -> {
+                connection.setReadOnly(false);
+                Connection oracle = oracle(connection);
+                if (oracle != null && previousPrefetch[0] > 0) {
+                    OracleDriver.invoke(OracleDriver.SET_PREFETCH, oracle, previousPrefetch[0]);
+                }
+            });
+        }
+    }
+
+    private static Connection oracle(Connection connection) throws SQLException {
+        Class<? extends Connection> type = OracleDriver.CONNECTION;
+        return type != null && connection.isWrapperFor(type) ? connection.unwrap(type) : null;
+    }
+
+    /**
+     * oracle.jdbc.OracleConnection and its row prefetch accessors, resolved once; CONNECTION is null
+     * when ojdbc is not on the classpath.
+     */
+    private static final class OracleDriver {
+
+        static final Class<? extends Connection> CONNECTION;
+        static final Method GET_PREFETCH;
+        static final Method SET_PREFETCH;
+
+        static {
+            Class<? extends Connection> connection = null;
+            Method getPrefetch = null;
+            Method setPrefetch = null;
+            try {
+                connection = Class.forName("oracle.jdbc.OracleConnection", false,
+                        Thread.currentThread().getContextClassLoader()).asSubclass(Connection.class);
+                getPrefetch = connection.getMethod("getDefaultRowPrefetch");
+                setPrefetch = connection.getMethod("setDefaultRowPrefetch", int.class);
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                connection = null;
+            }
+            CONNECTION = connection;
+            GET_PREFETCH = getPrefetch;
+            SET_PREFETCH = setPrefetch;
+        }
+
+        static Object invoke(Method method, Connection connection, Object... args) throws SQLException {
+            try {
+                return method.invoke(connection, args);
+            } catch (ReflectiveOperationException e) {
+                if (e.getCause() instanceof SQLException sql) {
+                    throw sql;
+                }
+                throw new SQLException("Cannot call " + method.getName() + " on the Oracle connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.testing.transactional.common;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Runs in-memory side effects (caches, indexes, read models) at the end of the caller's transaction.
+ */
+@ApplicationScoped
+public class TransactionCallbacks {
+
+    @Inject
+    TransactionSynchronizationRegistry synchronizationRegistry;
+
+    /**
+     * Runs {@code change} once the current transaction has committed, immediately when there is no
+     * transaction, and never when it is marked for rollback or rolls back later.
+     */
+    public void afterCommit(Runnable change) {
+        int status = synchronizationRegistry.getTransactionStatus();
+        if (status == Status.STATUS_NO_TRANSACTION) {
+            change.run();
+        } else if (status == Status.STATUS_ACTIVE) {
+            register(change, true);
+        }
+    }
+
+    /**
+     * Runs {@code action} when the current active transaction ends, committed or not; nothing happens
+     * without an active transaction.
+     */
+    public void afterCompletion(Runnable action) {
+        if (synchronizationRegistry.getTransactionStatus() == Status.STATUS_ACTIVE) {
+            register(action, false);
+        }
+    }
+
+    private void register(Runnable action, boolean committedOnly) {
+        synchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!committedOnly || status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -3,8 +3,10 @@ package org.testing.transactional.controller;
 
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -39,4 +41,13 @@ public class CardController {
         CardDTO createdCard = cardService.createCard(dto);
         return Response.ok(createdCard).build();
     }
+
+    /**
+     * Detail card (dari cache cards, di-invalidate setiap posting)
+     */
+    @GET
+    @Path("/{cardNo}")
+    public Response getCard(@PathParam("cardNo") String cardNo) {
+        return Response.ok(cardService.getCard(cardNo)).build();
+    }
 }
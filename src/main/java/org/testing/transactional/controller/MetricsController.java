@@ -0,0 +1,159 @@
+package org.testing.transactional.controller;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.testing.transactional.common.ApiResponse;
+import org.testing.transactional.repository.DepartmentStatsReadModel;
+import org.testing.transactional.repository.UserEmailFilter;
+import org.testing.transactional.repository.UserSearchIndex;
+import org.testing.transactional.service.AuditLogWriter;
+import org.testing.transactional.service.CardPartitionEngine;
+import org.testing.transactional.service.EntityCaches;
+import org.testing.transactional.service.IdempotencyService;
+import org.testing.transactional.service.OutboxRelay;
+import org.testing.transactional.service.PostingGroupCommitter;
+import org.testing.transactional.service.SettlementWorker;
+
+import java.util.List;
+import java.util.Map;
+
+@Path("/api/metrics")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Metrics", description = "Runtime statistics of the in-process engines")
+public class MetricsController {
+
+    @Inject
+    CardPartitionEngine partitionEngine;
+
+    @Inject
+    PostingGroupCommitter groupCommitter;
+
+    @Inject
+    SettlementWorker settlementWorker;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    AuditLogWriter auditLogWriter;
+
+    @Inject
+    OutboxRelay outboxRelay;
+
+    @Inject
+    UserSearchIndex userSearchIndex;
+
+    @Inject
+    UserEmailFilter userEmailFilter;
+
+    @Inject
+    DepartmentStatsReadModel departmentStatsReadModel;
+
+    @Inject
+    EntityCaches entityCaches;
+
+    /**
+     * Queue depth dan latency per partition kartu
+     */
+    @GET
+    @Path("/partitions")
+    public Response partitions() {
+        List<Map<String, Object>> stats = partitionEngine.stats();
+        return Response.ok(ApiResponse.success(stats, "Card partition statistics")).build();
+    }
+
+    /**
+     * Ukuran batch, jumlah commit dan latency group commit
+     */
+    @GET
+    @Path("/group-commit")
+    public Response groupCommit() {
+        Map<String, Object> stats = groupCommitter.stats();
+        return Response.ok(ApiResponse.success(stats, "Group commit statistics")).build();
+    }
+
+    /**
+     * Throughput settlement (rows/sec), latency per batch dan sisa backlog PENDING
+     */
+    @GET
+    @Path("/settlement")
+    public Response settlement() {
+        Map<String, Object> stats = settlementWorker.stats();
+        return Response.ok(ApiResponse.success(stats, "Settlement worker statistics")).build();
+    }
+
+    /**
+     * Hit rate Idempotency-Key (memory vs database) dan jumlah konflik
+     */
+    @GET
+    @Path("/idempotency")
+    public Response idempotency() {
+        Map<String, Object> stats = idempotencyService.stats();
+        return Response.ok(ApiResponse.success(stats, "Idempotency key statistics")).build();
+    }
+
+    /**
+     * Queue depth, ukuran batch, dan jumlah event audit yang di-drop / di-spill
+     */
+    @GET
+    @Path("/audit")
+    public Response audit() {
+        Map<String, Object> stats = auditLogWriter.stats();
+        return Response.ok(ApiResponse.success(stats, "Audit writer statistics")).build();
+    }
+
+    /**
+     * Jumlah event outbox yang sudah di-relay dan latency per batch
+     */
+    @GET
+    @Path("/outbox")
+    public Response outbox() {
+        Map<String, Object> stats = outboxRelay.stats();
+        return Response.ok(ApiResponse.success(stats, "Outbox relay statistics")).build();
+    }
+
+    /**
+     * Ukuran trigram index pencarian user (dokumen, tombstone, jumlah trigram)
+     */
+    @GET
+    @Path("/search-index")
+    public Response searchIndex() {
+        Map<String, Object> stats = userSearchIndex.stats();
+        return Response.ok(ApiResponse.success(stats, "User search index statistics")).build();
+    }
+
+    /**
+     * Bloom filter email: berapa cek yang tidak perlu ke database dan rasio false positive
+     */
+    @GET
+    @Path("/email-filter")
+    public Response emailFilter() {
+        Map<String, Object> stats = userEmailFilter.stats();
+        return Response.ok(ApiResponse.success(stats, "User email filter statistics")).build();
+    }
+
+    /**
+     * Read model statistik department: perubahan yang diterapkan dan hasil reconcile terakhir
+     */
+    @GET
+    @Path("/department-stats")
+    public Response departmentStats() {
+        Map<String, Object> stats = departmentStatsReadModel.stats();
+        return Response.ok(ApiResponse.success(stats, "Department statistics read model")).build();
+    }
+
+    /**
+     * Hit/miss/eviction per cache entitas (users, user-emails, cards)
+     */
+    @GET
+    @Path("/caches")
+    public Response caches() {
+        Map<String, Object> stats = entityCaches.stats();
+        return Response.ok(ApiResponse.success(stats, "Entity cache statistics")).build();
+    }
+}
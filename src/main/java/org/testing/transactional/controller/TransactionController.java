@@ -1,7 +1,10 @@
 package org.testing.transactional.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
@@ -11,9 +14,22 @@ import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testing.transactional.common.ApiResponse;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.PostingResultDTO;
 import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.service.BatchPostingService;
+import org.testing.transactional.service.CardPartitionEngine;
+import org.testing.transactional.service.IdempotencyService;
+import org.testing.transactional.service.PostingGroupCommitter;
 import org.testing.transactional.service.TransactionService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
 @Path("/api/transaction")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -22,23 +38,42 @@ public class TransactionController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TransactionController.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+
     @Inject
     TransactionService transactionService;
 
+    @Inject
+    CardPartitionEngine partitionEngine;
+
+    @Inject
+    PostingGroupCommitter groupCommitter;
+
+    @Inject
+    BatchPostingService batchPostingService;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     /**
      * Membuat transaction topup
      */
     @POST
     @Path("/topup")
-    public Response createTopUp(TransactionDTO request) {
+    public Response createTopUp(@HeaderParam(IdempotencyService.HEADER) String idempotencyKey, TransactionDTO request) {
         LOGGER.info("API /topup called for cardNo: {}", request.getCardNo());
-        TransactionDTO result = transactionService.crateTopup(request);
-        ApiResponse<TransactionDTO> response = ApiResponse.success(
-                result,
-                "TOPUP created in new transaction successfully",
-                "INSERT INTO TRANSACTION AND CARD (REQUIRES_NEW)"
-        );
-        return Response.status(Response.Status.CREATED).entity(response).build();
+        return idempotencyService.execute(idempotencyKey, "/topup", request, () -> {
+            TransactionDTO result = dispatch(Transaction.TRX_TYPE_ENUM.TOPUP, request, transactionService::crateTopup);
+            ApiResponse<TransactionDTO> response = ApiResponse.success(
+                    result,
+                    "TOPUP created in new transaction successfully",
+                    "INSERT INTO TRANSACTION AND CARD (REQUIRES_NEW)"
+            );
+            return Response.status(Response.Status.CREATED).entity(response).build();
+        });
     }
 
     /**
@@ -46,15 +81,17 @@ public class TransactionController {
      */
     @POST
     @Path("/purchase")
-    public Response createPurchase(TransactionDTO request) {
+    public Response createPurchase(@HeaderParam(IdempotencyService.HEADER) String idempotencyKey, TransactionDTO request) {
         LOGGER.info("API /purchase called for cardNo: {}", request.getCardNo());
-        TransactionDTO result = transactionService.cratePurchase(request);
-        ApiResponse<TransactionDTO> response = ApiResponse.success(
-                result,
-                "PURCHASE created in new transaction successfully",
-                "INSERT INTO TRANSACTION AND CARD (REQUIRES_NEW)"
-        );
-        return Response.status(Response.Status.CREATED).entity(response).build();
+        return idempotencyService.execute(idempotencyKey, "/purchase", request, () -> {
+            TransactionDTO result = dispatch(Transaction.TRX_TYPE_ENUM.PURCHASE, request, transactionService::cratePurchase);
+            ApiResponse<TransactionDTO> response = ApiResponse.success(
+                    result,
+                    "PURCHASE created in new transaction successfully",
+                    "INSERT INTO TRANSACTION AND CARD (REQUIRES_NEW)"
+            );
+            return Response.status(Response.Status.CREATED).entity(response).build();
+        });
     }
 
     /**
@@ -62,15 +99,17 @@ public class TransactionController {
      */
     @POST
     @Path("/direct-topup")
-    public Response createDirectTopUp(TransactionDTO request) {
+    public Response createDirectTopUp(@HeaderParam(IdempotencyService.HEADER) String idempotencyKey, TransactionDTO request) {
         LOGGER.info("API Request: DirectTopUp with Card Number : {}", request.getCardNo());
-        TransactionDTO result = transactionService.crateDirectTopup(request);
-        ApiResponse<TransactionDTO> response = ApiResponse.success(
-                result,
-                "DIRECT TOPUP created in transaction successfully",
-                "INSERT TABLE TRANSACTION AND CARD (REQUIRES_NEW)"
-        );
-        return Response.status(Response.Status.CREATED).entity(response).build();
+        return idempotencyService.execute(idempotencyKey, "/direct-topup", request, () -> {
+            TransactionDTO result = dispatch(Transaction.TRX_TYPE_ENUM.DIRECT_TOP, request, transactionService::crateDirectTopup);
+            ApiResponse<TransactionDTO> response = ApiResponse.success(
+                    result,
+                    "DIRECT TOPUP created in transaction successfully",
+                    "INSERT TABLE TRANSACTION AND CARD (REQUIRES_NEW)"
+            );
+            return Response.status(Response.Status.CREATED).entity(response).build();
+        });
     }
 
     /**
@@ -90,4 +129,60 @@ public class TransactionController {
         );
         return Response.status(Response.Status.CREATED).entity(response).build();
     }
+
+    /**
+     * Batch posting: array campuran TOPUP / PURCHASE / DIRECT_TOP (field transactionType),
+     * diurutkan per kartu dan diproses per chunk dalam satu transaksi + JDBC batch.
+     */
+    @POST
+    @Path("/batch")
+    public Response createBatch(List<TransactionDTO> requests) {
+        // Body kosong / "null" / "[]" / elemen null: tolak sebagai validasi, bukan NPE (500)
+        if (requests == null || requests.isEmpty() || requests.contains(null)) {
+            throw new BusinessException("Batch must be a non-empty array of operations",
+                    ResponseCode.VALIDATION_ERROR.name());
+        }
+        LOGGER.info("API /batch called with {} operations", requests.size());
+        return batchResponse(batchPostingService.postAll(requests));
+    }
+
+    /**
+     * Batch posting dalam format NDJSON (satu TransactionDTO per baris), diproses secara streaming.
+     */
+    @POST
+    @Path("/batch")
+    @Consumes(NDJSON)
+    public Response createBatchStream(InputStream body) throws IOException {
+        LOGGER.info("API /batch called with NDJSON stream");
+        try (MappingIterator<TransactionDTO> operations = objectMapper.readerFor(TransactionDTO.class).readValues(body)) {
+            return batchResponse(batchPostingService.postStream(operations));
+        }
+    }
+
+    private Response batchResponse(List<PostingResultDTO> results) {
+        long succeeded = results.stream().filter(PostingResultDTO::isSuccess).count();
+        ApiResponse<List<PostingResultDTO>> response = ApiResponse.<List<PostingResultDTO>>builder()
+                .responseCode(ResponseCode.SUCCESS.getCode())
+                .data(results)
+                .message(String.format("BATCH processed: %d succeeded, %d failed", succeeded, results.size() - succeeded))
+                .query("INSERT INTO TRANSACTION AND UPDATE CARD (JDBC BATCH, REQUIRES_NEW PER CHUNK)")
+                .totalElements((long) results.size())
+                .build();
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Jalankan posting lewat partition engine atau group commit jika aktif,
+     * selain itu langsung ke TransactionService (REQUIRES_NEW per request).
+     */
+    private TransactionDTO dispatch(Transaction.TRX_TYPE_ENUM type, TransactionDTO request,
+                                    UnaryOperator<TransactionDTO> direct) {
+        if (partitionEngine.isEnabled()) {
+            return partitionEngine.submit(type, request);
+        }
+        if (groupCommitter.isEnabled()) {
+            return groupCommitter.submit(type, request);
+        }
+        return direct.apply(request);
+    }
 }
@@ -7,9 +7,21 @@ import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.ApiResponse;
+import org.testing.transactional.common.PaginationRequest;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.DepartmentStatsDTO;
+import org.testing.transactional.dto.PageResult;
+import org.testing.transactional.dto.UserDTO;
+import org.testing.transactional.dto.UserImportResultDTO;
 import org.testing.transactional.dto.UserTransactionDTO;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.service.UserBulkImportService;
 import org.testing.transactional.service.UserService;
 
+import java.util.List;
+import java.util.Locale;
+
 @Path("/api/users")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -21,11 +33,157 @@ public class UserController {
     @Inject
     UserService userService;
 
+    @Inject
+    UserBulkImportService userBulkImportService;
+
     @GET
     @Path("/{userId}")
-    public Response getUserTransaction(@PathParam("userId") Long userId) {
-        UserTransactionDTO dto = userService.getUserTransaction(userId);
+    public Response getUserTransaction(@PathParam("userId") Long userId, @QueryParam("limit") Integer limit) {
+        UserTransactionDTO dto = limit == null
+                ? userService.getUserTransaction(userId)
+                : userService.getUserTransaction(userId, Math.max(limit, 1));
+        return Response.ok(dto).build();
+    }
+
+    /**
+     * Halaman history berikutnya untuk satu kartu; cursor = nextCursor dari response sebelumnya
+     */
+    @GET
+    @Path("/{userId}/cards/{cardNo}/transactions")
+    public Response getCardTransactions(@PathParam("userId") Long userId,
+                                        @PathParam("cardNo") String cardNo,
+                                        @QueryParam("cursor") Long cursor,
+                                        @QueryParam("limit") Integer limit) {
+        UserTransactionDTO.CardDTO dto = userService.getCardTransactionPage(userId, cardNo, cursor, limit);
         return Response.ok(dto).build();
     }
 
+    /**
+     * Statistik per department (jumlah user, user aktif, gaji) dari read model, tanpa GROUP BY per request
+     */
+    @GET
+    @Path("/departments/stats")
+    public Response getDepartmentStatistics() {
+        List<DepartmentStatsDTO> stats = userService.getDepartmentStatistics();
+        return Response.ok(ApiResponse.success(stats, "Department statistics retrieved successfully")).build();
+    }
+
+    /**
+     * Daftar user aktif. Offset: page + size; keyset: keyset=true lalu cursor = nextCursor halaman sebelumnya.
+     * total=EXACT (default) | APPROXIMATE | NONE menentukan cara menghitung totalElements
+     */
+    @GET
+    @Path("/active")
+    public Response getActiveUsers(@QueryParam("page") @DefaultValue("0") Integer page,
+                                   @QueryParam("size") @DefaultValue("20") Integer size,
+                                   @QueryParam("sortBy") String sortBy,
+                                   @QueryParam("sortDirection") @DefaultValue("ASC") String sortDirection,
+                                   @QueryParam("keyset") boolean keyset,
+                                   @QueryParam("cursor") String cursor,
+                                   @QueryParam("total") @DefaultValue("EXACT") String total) {
+        PaginationRequest pagination = pagination(page, size, sortBy, sortDirection, keyset, cursor, total);
+        return pageResponse(userService.getActiveUsersPage(pagination), pagination);
+    }
+
+    /**
+     * Pencarian user dengan filter opsional, mendukung mode offset maupun keyset
+     */
+    @GET
+    @Path("/search")
+    public Response searchUsers(@QueryParam("q") String searchTerm,
+                                @QueryParam("department") String department,
+                                @QueryParam("active") Boolean active,
+                                @QueryParam("minSalary") Double minSalary,
+                                @QueryParam("maxSalary") Double maxSalary,
+                                @QueryParam("page") @DefaultValue("0") Integer page,
+                                @QueryParam("size") @DefaultValue("20") Integer size,
+                                @QueryParam("sortBy") String sortBy,
+                                @QueryParam("sortDirection") @DefaultValue("ASC") String sortDirection,
+                                @QueryParam("keyset") boolean keyset,
+                                @QueryParam("cursor") String cursor,
+                                @QueryParam("total") @DefaultValue("EXACT") String total) {
+        PaginationRequest pagination = pagination(page, size, sortBy, sortDirection, keyset, cursor, total);
+        PageResult<UserDTO> result = userService.searchUsersPage(searchTerm, department, active, minSalary, maxSalary, pagination);
+        return pageResponse(result, pagination);
+    }
+
+    /**
+     * Import user dalam jumlah besar: per chunk satu cek email + satu JDBC batch + satu commit.
+     * Baris yang gagal dilaporkan per index tanpa membatalkan baris lain.
+     */
+    @POST
+    @Path("/bulk-import")
+    public Response bulkImport(@QueryParam("createdBy") @DefaultValue("system") String createdBy,
+                               List<UserDTO> users) {
+        LOGGER.info("API /bulk-import called with {} users", users.size());
+        List<UserImportResultDTO> results = userBulkImportService.importAll(users, createdBy);
+        long created = results.stream().filter(UserImportResultDTO::isSuccess).count();
+        ApiResponse<List<UserImportResultDTO>> response = ApiResponse.<List<UserImportResultDTO>>builder()
+                .responseCode(ResponseCode.SUCCESS.getCode())
+                .data(results)
+                .message(String.format("IMPORT processed: %d created, %d rejected", created, results.size() - created))
+                .query("INSERT INTO TEST_USERS (JDBC BATCH, REQUIRES_NEW PER CHUNK)")
+                .totalElements((long) results.size())
+                .build();
+        return Response.ok(response).build();
+    }
+
+    /**
+     * Soft delete banyak user sekaligus (body: daftar id)
+     */
+    @POST
+    @Path("/soft-delete")
+    public Response softDeleteUsers(@QueryParam("updatedBy") @DefaultValue("system") String updatedBy,
+                                    List<Long> userIds) {
+        int updated = userService.softDeleteUsers(userIds, updatedBy);
+        return Response.ok(ApiResponse.success(updated, "Users soft deleted: " + updated)).build();
+    }
+
+    /**
+     * Restore banyak user sekaligus (body: daftar id)
+     */
+    @POST
+    @Path("/restore")
+    public Response restoreUsers(@QueryParam("updatedBy") @DefaultValue("system") String updatedBy,
+                                 List<Long> userIds) {
+        int updated = userService.restoreUsers(userIds, updatedBy);
+        return Response.ok(ApiResponse.success(updated, "Users restored: " + updated)).build();
+    }
+
+    private PaginationRequest pagination(Integer page, Integer size, String sortBy, String sortDirection,
+                                         boolean keyset, String cursor, String total) {
+        PaginationRequest pagination = new PaginationRequest(Math.max(page, 0), Math.max(size, 1), sortBy, sortDirection);
+        pagination.setKeyset(keyset);
+        pagination.setCursor(cursor);
+        pagination.setTotalMode(totalMode(total));
+        return pagination;
+    }
+
+    private PaginationRequest.TotalMode totalMode(String total) {
+        try {
+            return PaginationRequest.TotalMode.valueOf(total.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("total must be one of NONE, EXACT, APPROXIMATE",
+                    ResponseCode.VALIDATION_ERROR.name());
+        }
+    }
+
+    private Response pageResponse(PageResult<UserDTO> result, PaginationRequest pagination) {
+        ApiResponse<List<UserDTO>> response = ApiResponse.<List<UserDTO>>builder()
+                .responseCode(ResponseCode.SUCCESS.getCode())
+                .data(result.getItems())
+                .message("Users retrieved successfully")
+                .currentPage(pagination.isKeyset() ? null : pagination.getPage())
+                .pageSize(pagination.getEffectiveSize())
+                .nextCursor(result.getNextCursor())
+                .totalElements(result.getTotalElements())
+                .totalPages(totalPages(result.getTotalElements(), pagination.getEffectiveSize()))
+                .totalApproximate(result.getTotalElements() == null ? null : result.isTotalApproximate())
+                .build();
+        return Response.ok(response).build();
+    }
+
+    private Integer totalPages(Long totalElements, int size) {
+        return totalElements == null ? null : (int) ((totalElements + size - 1) / size);
+    }
 }
@@ -0,0 +1,69 @@
+package org.testing.transactional.dto;
+
+/**
+ * Result of a guarded balance mutation on TEST_CARD.
+ * Carries the card snapshot returned by the same statement that changed the balance,
+ * so callers don't need to load the Card entity again.
+ */
+public class BalanceUpdateResult {
+
+    private final boolean applied;
+    private final Long cardId;
+    private final String cardNo;
+    private final String cardName;
+    private final String cardType;
+    private final String accountNumber;
+    private final int balance;
+
+    private BalanceUpdateResult(boolean applied, Long cardId, String cardNo, String cardName,
+                                String cardType, String accountNumber, int balance) {
+        this.applied = applied;
+        this.cardId = cardId;
+        this.cardNo = cardNo;
+        this.cardName = cardName;
+        this.cardType = cardType;
+        this.accountNumber = accountNumber;
+        this.balance = balance;
+    }
+
+    public static BalanceUpdateResult applied(Long cardId, String cardNo, String cardName,
+                                              String cardType, String accountNumber, int balance) {
+        return new BalanceUpdateResult(true, cardId, cardNo, cardName, cardType, accountNumber, balance);
+    }
+
+    /**
+     * No row matched the guarded UPDATE: either the card does not exist
+     * or its balance does not cover the debit.
+     */
+    public static BalanceUpdateResult rejected(String cardNo) {
+        return new BalanceUpdateResult(false, null, cardNo, null, null, null, 0);
+    }
+
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public String getCardNo() {
+        return cardNo;
+    }
+
+    public String getCardName() {
+        return cardName;
+    }
+
+    public String getCardType() {
+        return cardType;
+    }
+
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public int getBalance() {
+        return balance;
+    }
+}
@@ -0,0 +1,69 @@
+package org.testing.transactional.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Aggregates of one department: user counts and salary figures over all of its users.
+ */
+public class DepartmentStatsDTO {
+
+    @JsonProperty("department")
+    private final String department;
+
+    @JsonProperty("totalUsers")
+    private final long totalUsers;
+
+    @JsonProperty("activeUsers")
+    private final long activeUsers;
+
+    @JsonProperty("salarySum")
+    private final double salarySum;
+
+    @JsonProperty("avgSalary")
+    private final Double avgSalary;
+
+    @JsonProperty("minSalary")
+    private final Double minSalary;
+
+    @JsonProperty("maxSalary")
+    private final Double maxSalary;
+
+    public DepartmentStatsDTO(String department, long totalUsers, long activeUsers, double salarySum,
+                              Double avgSalary, Double minSalary, Double maxSalary) {
+        this.department = department;
+        this.totalUsers = totalUsers;
+        this.activeUsers = activeUsers;
+        this.salarySum = salarySum;
+        this.avgSalary = avgSalary;
+        this.minSalary = minSalary;
+        this.maxSalary = maxSalary;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public long getTotalUsers() {
+        return totalUsers;
+    }
+
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+
+    public double getSalarySum() {
+        return salarySum;
+    }
+
+    public Double getAvgSalary() {
+        return avgSalary;
+    }
+
+    public Double getMinSalary() {
+        return minSalary;
+    }
+
+    public Double getMaxSalary() {
+        return maxSalary;
+    }
+}
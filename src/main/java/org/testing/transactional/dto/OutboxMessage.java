@@ -0,0 +1,13 @@
+package org.testing.transactional.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Relayed outbox event as delivered to in-process subscribers ({@code @Observes OutboxMessage}).
+ * Plain observers run inside the relay batch transaction: a subscriber that throws rolls the batch back
+ * and it is delivered again with the retry. Observers with {@code during = AFTER_SUCCESS} only see
+ * batches that committed.
+ */
+public record OutboxMessage(Long id, String aggregateType, Long aggregateId, String eventType,
+                            String operatedBy, String payload, LocalDateTime createdAt) {
+}
@@ -0,0 +1,50 @@
+package org.testing.transactional.dto;
+
+import java.util.List;
+
+/**
+ * One page of a list query. nextCursor is only set in keyset mode while more rows follow.
+ * totalElements is null when no total was requested (or on keyset pages after the first);
+ * totalApproximate marks a total served from the count cache.
+ */
+public class PageResult<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final Long totalElements;
+    private final boolean totalApproximate;
+
+    public PageResult(List<T> items, String nextCursor) {
+        this(items, nextCursor, null, false);
+    }
+
+    public PageResult(List<T> items, String nextCursor, Long totalElements, boolean totalApproximate) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+        this.totalApproximate = totalApproximate;
+    }
+
+    /**
+     * Same page metadata around different items, e.g. entities mapped to DTOs.
+     */
+    public <R> PageResult<R> withItems(List<R> items) {
+        return new PageResult<>(items, nextCursor, totalElements, totalApproximate);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public boolean isTotalApproximate() {
+        return totalApproximate;
+    }
+}
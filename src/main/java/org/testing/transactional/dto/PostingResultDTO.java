@@ -0,0 +1,125 @@
+package org.testing.transactional.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.exeption.BusinessException;
+
+/**
+ * Outcome of one posting inside a group or batch.
+ * Either {@code data} is set (success) or {@code errorCode}/{@code message} describe the rejection.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PostingResultDTO {
+
+    @JsonProperty("index")
+    private Integer index;
+
+    @JsonProperty("cardNo")
+    private String cardNo;
+
+    @JsonProperty("transactionType")
+    private String transactionType;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("responseCode")
+    private String responseCode;
+
+    @JsonProperty("errorCode")
+    private String errorCode;
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("data")
+    private TransactionDTO data;
+
+    public PostingResultDTO() {}
+
+    public static PostingResultDTO success(int index, TransactionDTO data) {
+        PostingResultDTO result = new PostingResultDTO();
+        result.index = index;
+        result.cardNo = data.getCardNo();
+        result.transactionType = data.getTransactionType();
+        result.success = true;
+        result.responseCode = ResponseCode.SUCCESS.getCode();
+        result.data = data;
+        return result;
+    }
+
+    public static PostingResultDTO failure(int index, TransactionDTO request, BusinessException e) {
+        return failure(index, request, ResponseCode.TRANSACTION_FAILED, e.getErrorCode(), e.getMessage());
+    }
+
+    public static PostingResultDTO failure(int index, TransactionDTO request, ResponseCode responseCode,
+                                           String errorCode, String message) {
+        PostingResultDTO result = new PostingResultDTO();
+        result.index = index;
+        result.cardNo = request.getCardNo();
+        result.transactionType = request.getTransactionType();
+        result.success = false;
+        result.responseCode = responseCode.getCode();
+        result.errorCode = errorCode;
+        result.message = message;
+        return result;
+    }
+
+    /**
+     * An operation of a streamed batch that was never posted, e.g. an unreadable line or one past the size limit.
+     */
+    public static PostingResultDTO notProcessed(int index, String message) {
+        PostingResultDTO result = new PostingResultDTO();
+        result.index = index;
+        result.success = false;
+        result.responseCode = ResponseCode.VALIDATION_ERROR.getCode();
+        result.errorCode = ResponseCode.VALIDATION_ERROR.name();
+        result.message = message;
+        return result;
+    }
+
+    /**
+     * Rebuilds the business exception of a failed posting, so single-item callers
+     * get the same error they would have got from the direct service call.
+     */
+    public BusinessException toException() {
+        return new BusinessException(message, errorCode);
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public String getCardNo() {
+        return cardNo;
+    }
+
+    public String getTransactionType() {
+        return transactionType;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getResponseCode() {
+        return responseCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public TransactionDTO getData() {
+        return data;
+    }
+}
@@ -0,0 +1,55 @@
+package org.testing.transactional.dto;
+
+/**
+ * Outcome of settling the PENDING top-ups of one card.
+ */
+public class SettlementResult {
+
+    private final boolean cardFound;
+    private final String cardNo;
+    private final Long cardId;
+    private final int settledCount;
+    private final int settledAmount;
+    private final int balance;
+
+    private SettlementResult(boolean cardFound, String cardNo, Long cardId, int settledCount, int settledAmount, int balance) {
+        this.cardFound = cardFound;
+        this.cardNo = cardNo;
+        this.cardId = cardId;
+        this.settledCount = settledCount;
+        this.settledAmount = settledAmount;
+        this.balance = balance;
+    }
+
+    public static SettlementResult settled(String cardNo, Long cardId, int settledCount, int settledAmount, int balance) {
+        return new SettlementResult(true, cardNo, cardId, settledCount, settledAmount, balance);
+    }
+
+    public static SettlementResult cardNotFound(String cardNo) {
+        return new SettlementResult(false, cardNo, null, 0, 0, 0);
+    }
+
+    public boolean isCardFound() {
+        return cardFound;
+    }
+
+    public String getCardNo() {
+        return cardNo;
+    }
+
+    public Long getCardId() {
+        return cardId;
+    }
+
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    public int getSettledAmount() {
+        return settledAmount;
+    }
+
+    public int getBalance() {
+        return balance;
+    }
+}
@@ -0,0 +1,90 @@
+package org.testing.transactional.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.testing.transactional.common.ResponseCode;
+
+/**
+ * Outcome of one row of a bulk user import.
+ * Either {@code id} is set (created) or {@code errorCode}/{@code message} describe why the row was skipped.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResultDTO {
+
+    @JsonProperty("index")
+    private Integer index;
+
+    @JsonProperty("email")
+    private String email;
+
+    @JsonProperty("success")
+    private boolean success;
+
+    @JsonProperty("responseCode")
+    private String responseCode;
+
+    @JsonProperty("errorCode")
+    private String errorCode;
+
+    @JsonProperty("message")
+    private String message;
+
+    @JsonProperty("id")
+    private Long id;
+
+    public UserImportResultDTO() {}
+
+    public static UserImportResultDTO created(int index, String email, Long id) {
+        UserImportResultDTO result = new UserImportResultDTO();
+        result.index = index;
+        result.email = email;
+        result.success = true;
+        result.responseCode = ResponseCode.CREATED.getCode();
+        result.id = id;
+        return result;
+    }
+
+    public static UserImportResultDTO failure(int index, String email, ResponseCode responseCode, String message) {
+        return failure(index, email, responseCode, responseCode.name(), message);
+    }
+
+    public static UserImportResultDTO failure(int index, String email, ResponseCode responseCode,
+                                              String errorCode, String message) {
+        UserImportResultDTO result = new UserImportResultDTO();
+        result.index = index;
+        result.email = email;
+        result.success = false;
+        result.responseCode = responseCode.getCode();
+        result.errorCode = errorCode;
+        result.message = message;
+        return result;
+    }
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getResponseCode() {
+        return responseCode;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
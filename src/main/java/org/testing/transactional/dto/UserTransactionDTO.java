@@ -36,6 +36,10 @@ public class UserTransactionDTO {
 
         private List<TransactionDTO> transaction;
 
+        // Keyset cursor: ID transaksi tertua di halaman ini, null jika tidak ada data yang lebih lama
+        @JsonProperty("nextCursor")
+        private Long nextCursor;
+
         // getter/setter
         public String getCardNo() { return cardNo; }
         public void setCardNo(String cardNo) { this.cardNo = cardNo; }
@@ -53,6 +57,9 @@ public class UserTransactionDTO {
         public void setTransaction(List<TransactionDTO> transaction) {
             this.transaction = transaction;
         }
+
+        public Long getNextCursor() { return nextCursor; }
+        public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
     }
 
     // ==== Inner DTO untuk Transaction ====
@@ -68,6 +68,7 @@ public class GlobalExceptionHandler implements ExceptionMapper<Throwable> {
             case "UNAUTHORIZED"    -> Response.Status.UNAUTHORIZED;
             case "FORBIDDEN"       -> Response.Status.FORBIDDEN;
             case "CONFLICT"        -> Response.Status.CONFLICT;
+            case "SERVICE_UNAVAILABLE" -> Response.Status.SERVICE_UNAVAILABLE;
             default                -> Response.Status.BAD_REQUEST;
         };
 
@@ -9,18 +9,26 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
+/**
+ * Card.user is LAZY: posting only needs the card columns. Use cases that read the owner opt in
+ * through the {@link #WITH_USER} fetch plan (one join), or rely on User's batch fetching when
+ * they walk the owners of many cards.
+ */
 @Entity
 @Table(name = "TEST_CARD")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Card.WITH_USER, attributeNodes = @NamedAttributeNode("user"))
 public class Card {
 
+    public static final String WITH_USER = "Card.withUser";
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "card_seq")
-    @SequenceGenerator(name = "card_seq", sequenceName = "CARD_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "card_seq", sequenceName = "CARD_SEQ", allocationSize = IdBlockSizes.CARD)
     @Column(name = "ID", nullable = false)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "USER_ID", nullable = false)
     private User user;
 
@@ -0,0 +1,19 @@
+package org.testing.transactional.model;
+
+/**
+ * Block sizes of the pooled-lo id sequences, one sequence per entity.
+ * Hibernate hands out {@code size} ids per NEXTVAL round trip, so an insert costs
+ * 1/size sequence calls instead of one. Each value must match the INCREMENT BY of its
+ * database sequence (see src/main/resources/db/pooled-id-sequences.sql).
+ */
+public final class IdBlockSizes {
+
+    public static final int USER = 50;
+    public static final int CARD = 50;
+    public static final int TRANSACTION = 100;
+    // Tanpa blok: relay outbox mengandalkan urutan id tanpa celah
+    public static final int OUTBOX = 1;
+
+    private IdBlockSizes() {
+    }
+}
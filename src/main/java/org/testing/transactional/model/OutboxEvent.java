@@ -0,0 +1,107 @@
+package org.testing.transactional.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event written in the same transaction as the business change that caused it.
+ * Rows only become visible to the relay when that transaction commits and disappear
+ * once relayed, so TEST_OUTBOX only ever holds undelivered events.
+ */
+@Entity
+@Table(name = "TEST_OUTBOX")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq")
+    @SequenceGenerator(name = "outbox_seq", sequenceName = "OUTBOX_SEQ", allocationSize = IdBlockSizes.OUTBOX)
+    @Column(name = "ID", nullable = false)
+    private Long id;
+
+    @Column(name = "AGGREGATE_TYPE", nullable = false, length = 30)
+    private String aggregateType;
+
+    @Column(name = "AGGREGATE_ID")
+    private Long aggregateId;
+
+    @Column(name = "EVENT_TYPE", nullable = false, length = 50)
+    private String eventType;
+
+    @Column(name = "OPERATED_BY", length = 50)
+    private String operatedBy;
+
+    @Column(name = "PAYLOAD", length = 4000)
+    private String payload;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String aggregateType, Long aggregateId, String eventType, String operatedBy, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.operatedBy = operatedBy;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getOperatedBy() {
+        return operatedBy;
+    }
+
+    public void setOperatedBy(String operatedBy) {
+        this.operatedBy = operatedBy;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,6 +1,7 @@
 package org.testing.transactional.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
@@ -12,11 +13,13 @@ import java.util.Objects;
 @Entity
 @Table(name = "TEST_USERS")
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Proxy Card.user yang belum terisi dimuat per 50 dalam satu IN (...), bukan satu per satu
+@BatchSize(size = 50)
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
-    @SequenceGenerator(name = "user_seq", sequenceName = "USER_SEQ", allocationSize = 1)
+    @SequenceGenerator(name = "user_seq", sequenceName = "USER_SEQ", allocationSize = IdBlockSizes.USER)
     @Column(name = "ID", nullable = false)
     private Long id;
 
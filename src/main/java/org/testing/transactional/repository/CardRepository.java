@@ -1,10 +1,21 @@
 package org.testing.transactional.repository;
 
-import io.quarkus.cache.CacheResult;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.testing.transactional.dto.BalanceUpdateResult;
 import org.testing.transactional.model.Card;
 
+import java.sql.CallableStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,9 +26,41 @@ import java.util.Optional;
 public class CardRepository implements PanacheRepository<Card> {
 
     /**
-     * Finds a card by Account Number with caching for improved performance.
+     * Credit, returning the updated card columns in the same round trip.
+     * CARD_NO is not unique, so the row is targeted by its primary key (the lowest ID for the card number,
+     * the same card findByCardNo would pick); RETURNING ... INTO can then never hit TOO_MANY_ROWS.
+     */
+    private static final String ORACLE_CREDIT_RETURNING = """
+            BEGIN
+                UPDATE TEST_CARD
+                   SET BALANCE = BALANCE + ?, UPDATED_AT = ?
+                 WHERE ID = (SELECT MIN(ID) FROM TEST_CARD WHERE CARD_NO = ?)
+                RETURNING ID, CARD_NAME, CARD_TYPE, ACCOUNT_NO, BALANCE INTO ?, ?, ?, ?, ?;
+                ? := SQL%ROWCOUNT;
+            END;
+            """;
+
+    /**
+     * Guarded debit: the row only matches when the balance covers the amount,
+     * so the check and the debit are a single atomic statement.
+     */
+    private static final String ORACLE_DEBIT_RETURNING = """
+            BEGIN
+                UPDATE TEST_CARD
+                   SET BALANCE = BALANCE + ?, UPDATED_AT = ?
+                 WHERE ID = (SELECT MIN(ID) FROM TEST_CARD WHERE CARD_NO = ?) AND BALANCE >= ?
+                RETURNING ID, CARD_NAME, CARD_TYPE, ACCOUNT_NO, BALANCE INTO ?, ?, ?, ?, ?;
+                ? := SQL%ROWCOUNT;
+            END;
+            """;
+
+    private static final int MAX_IN_LIST = 1000;
+
+    private volatile Boolean oracle;
+
+    /**
+     * Finds a card by Account Number. Not cached: reads by card number go through EntityCaches.
      */
-    @CacheResult(cacheName = "user-cache")
     public Optional<Card> findByAccountNumber(String accountNumber) {
         return find("accountNumber", accountNumber).firstResultOptional();
     }
@@ -27,10 +70,152 @@ public class CardRepository implements PanacheRepository<Card> {
     }
 
     /**
-     * Finds a card by Card Number with caching for improved performance.
+     * Finds a card by Card Number. The owner stays an unloaded proxy (only its id is known).
      */
-//    @CacheResult(cacheName = "user-cache")
     public Optional<Card> findByCardNo(String cardNo) {
         return find("cardNo", cardNo).firstResultOptional();
     }
+
+    /**
+     * Finds a card by Card Number together with its owner, in one statement (fetch plan {@link Card#WITH_USER}).
+     */
+    public Optional<Card> findByCardNoWithUser(String cardNo) {
+        return find("cardNo", cardNo)
+                .withHint(SpecHints.HINT_SPEC_FETCH_GRAPH, getEntityManager().getEntityGraph(Card.WITH_USER))
+                .firstResultOptional();
+    }
+
+    /**
+     * Locks (SELECT ... FOR UPDATE) all cards with the given numbers, in cardNo order.
+     * The IN list is chunked to stay under Oracle's 1000 element limit.
+     */
+    public List<Card> lockByCardNos(Collection<String> cardNos) {
+        List<String> sorted = cardNos.stream().sorted().toList();
+        List<Card> cards = new ArrayList<>(sorted.size());
+        for (int from = 0; from < sorted.size(); from += MAX_IN_LIST) {
+            List<String> chunk = sorted.subList(from, Math.min(from + MAX_IN_LIST, sorted.size()));
+            cards.addAll(find("cardNo in ?1", Sort.by("cardNo"), chunk)
+                    .withLock(LockModeType.PESSIMISTIC_WRITE)
+                    .list());
+        }
+        return cards;
+    }
+
+    /**
+     * Reads only the current balance of a card, without loading the entity.
+     */
+    public Optional<Integer> findBalanceByCardNo(String cardNo) {
+        return getEntityManager()
+                .createQuery("SELECT c.balance FROM Card c WHERE c.cardNo = ?1", Integer.class)
+                .setParameter(1, cardNo)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Debits a card only if its balance covers the amount.
+     * Returns a rejected result when the card is missing or funds are insufficient.
+     */
+    public BalanceUpdateResult debitIfSufficient(String cardNo, int amount) {
+        return applyBalanceDelta(cardNo, -amount, true);
+    }
+
+    /**
+     * Credits a card. Returns a rejected result when the card is missing.
+     */
+    public BalanceUpdateResult credit(String cardNo, int amount) {
+        return applyBalanceDelta(cardNo, amount, false);
+    }
+
+    private BalanceUpdateResult applyBalanceDelta(String cardNo, int delta, boolean guarded) {
+        BalanceUpdateResult result = isOracle()
+                ? applyBalanceDeltaReturning(cardNo, delta, guarded)
+                : applyBalanceDeltaPortable(cardNo, delta, guarded);
+
+        if (result.isApplied()) {
+            // The row was changed behind Hibernate's back, drop the stale second-level cache entry
+            getEntityManager().getEntityManagerFactory().getCache().evict(Card.class, result.getCardId());
+        }
+        return result;
+    }
+
+    /**
+     * Oracle path: one PL/SQL round trip does the guarded UPDATE and returns the new row.
+     */
+    private BalanceUpdateResult applyBalanceDeltaReturning(String cardNo, int delta, boolean guarded) {
+        Session session = getEntityManager().unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            try (CallableStatement cs = connection.prepareCall(guarded ? ORACLE_DEBIT_RETURNING : ORACLE_CREDIT_RETURNING)) {
+                int index = 1;
+                cs.setInt(index++, delta);
+                cs.setTimestamp(index++, Timestamp.valueOf(LocalDateTime.now()));
+                cs.setString(index++, cardNo);
+                if (guarded) {
+                    cs.setInt(index++, -delta);
+                }
+
+                int out = index;
+                cs.registerOutParameter(out, Types.NUMERIC);
+                cs.registerOutParameter(out + 1, Types.VARCHAR);
+                cs.registerOutParameter(out + 2, Types.VARCHAR);
+                cs.registerOutParameter(out + 3, Types.VARCHAR);
+                cs.registerOutParameter(out + 4, Types.NUMERIC);
+                cs.registerOutParameter(out + 5, Types.INTEGER);
+                cs.execute();
+
+                if (cs.getInt(out + 5) == 0) {
+                    return BalanceUpdateResult.rejected(cardNo);
+                }
+                return BalanceUpdateResult.applied(
+                        cs.getLong(out),
+                        cardNo,
+                        cs.getString(out + 1),
+                        cs.getString(out + 2),
+                        cs.getString(out + 3),
+                        cs.getInt(out + 4));
+            }
+        });
+    }
+
+    /**
+     * Portable path for databases without UPDATE ... RETURNING: resolve the card's primary key,
+     * guarded HQL update of that single row, then a projection read of the row this transaction now holds locked.
+     */
+    private BalanceUpdateResult applyBalanceDeltaPortable(String cardNo, int delta, boolean guarded) {
+        Long cardId = getEntityManager()
+                .createQuery("SELECT MIN(c.id) FROM Card c WHERE c.cardNo = ?1", Long.class)
+                .setParameter(1, cardNo)
+                .getSingleResult();
+        if (cardId == null) {
+            return BalanceUpdateResult.rejected(cardNo);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int updated = guarded
+                ? update("balance = balance + ?1, updatedAt = ?2 where id = ?3 and balance >= ?4",
+                        delta, now, cardId, -delta)
+                : update("balance = balance + ?1, updatedAt = ?2 where id = ?3",
+                        delta, now, cardId);
+
+        if (updated == 0) {
+            return BalanceUpdateResult.rejected(cardNo);
+        }
+
+        Object[] row = getEntityManager()
+                .createQuery("SELECT c.id, c.cardName, c.cardType, c.accountNumber, c.balance FROM Card c WHERE c.id = ?1",
+                        Object[].class)
+                .setParameter(1, cardId)
+                .getSingleResult();
+
+        return BalanceUpdateResult.applied(
+                (Long) row[0], cardNo, (String) row[1], (String) row[2], (String) row[3], (Integer) row[4]);
+    }
+
+    private boolean isOracle() {
+        if (oracle == null) {
+            oracle = Dialects.isOracle(getEntityManager());
+        }
+        return oracle;
+    }
 }
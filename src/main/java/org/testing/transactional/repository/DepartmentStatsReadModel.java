@@ -0,0 +1,284 @@
+package org.testing.transactional.repository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.TransactionCallbacks;
+import org.testing.transactional.dto.DepartmentStatsDTO;
+import org.testing.transactional.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * In-memory read model of per-department user statistics (counts, active counts, salary sum/min/max),
+ * replacing the GROUP BY over all of TEST_USERS on every dashboard call.
+ * <p>
+ * UserService reports every create, update, soft delete and restore as a before/after {@link Snapshot};
+ * the delta is applied once the transaction commits. Each department keeps a salary histogram so
+ * min/max stay exact when the current extreme leaves. A scheduled reconciler rebuilds the model from
+ * one {@code GROUP BY department, salary, active} query and replays changes that committed meanwhile,
+ * correcting any drift (writes that bypass UserService, races).
+ */
+@ApplicationScoped
+public class DepartmentStatsReadModel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DepartmentStatsReadModel.class);
+
+    // Users tanpa department ikut dihitung untuk total, tapi tidak muncul di daftar department
+    private static final String NO_DEPARTMENT = "";
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @ConfigProperty(name = "user.department-stats.enabled", defaultValue = "true")
+    boolean enabled;
+
+    private Map<String, Department> departments = new HashMap<>();
+    private List<Change> changesDuringReconcile;
+    private volatile boolean ready;
+
+    private long appliedChanges;
+    private long reconciles;
+    private int lastReconcileDrift;
+    private LocalDateTime lastReconciled;
+
+    /**
+     * The fields of a user that the statistics depend on.
+     */
+    public record Snapshot(String department, boolean active, Double salary) {
+
+        public static Snapshot of(User user) {
+            return new Snapshot(user.getDepartment(), Boolean.TRUE.equals(user.getActive()), user.getSalary());
+        }
+
+        public Snapshot withActive(boolean active) {
+            return new Snapshot(department, active, salary);
+        }
+    }
+
+    private record Change(Snapshot before, Snapshot after) {
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    @Scheduled(every = "${user.department-stats.reconcile-interval:15m}",
+            delayed = "${user.department-stats.reconcile-interval:15m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledReconcile() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Applies a user change once the current transaction commits (immediately without one).
+     * {@code before} is null for an insert, {@code after} null for a physical delete.
+     */
+    public void recordAfterCommit(Snapshot before, Snapshot after) {
+        if (!enabled || Objects.equals(before, after)) {
+            return;
+        }
+        Change change = new Change(before, after);
+        transactionCallbacks.afterCommit(() -> apply(change));
+    }
+
+    /**
+     * All departments, largest first. O(departments), no database access.
+     */
+    public synchronized List<DepartmentStatsDTO> departmentStatistics() {
+        return departments.entrySet().stream()
+                .filter(entry -> !NO_DEPARTMENT.equals(entry.getKey()))
+                .map(entry -> entry.getValue().toDTO(entry.getKey()))
+                .sorted(Comparator.comparingLong(DepartmentStatsDTO::getTotalUsers).reversed())
+                .toList();
+    }
+
+    public synchronized long activeUsers(String department) {
+        Department stats = departments.get(department == null ? NO_DEPARTMENT : department);
+        return stats == null ? 0 : stats.active;
+    }
+
+    public synchronized long activeUsers() {
+        return departments.values().stream().mapToLong(stats -> stats.active).sum();
+    }
+
+    /**
+     * Departments with at least one active user, sorted by name.
+     */
+    public synchronized List<String> activeDepartments() {
+        return departments.entrySet().stream()
+                .filter(entry -> !NO_DEPARTMENT.equals(entry.getKey()) && entry.getValue().active > 0)
+                .map(Map.Entry::getKey)
+                .sorted()
+                .toList();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ready);
+        stats.put("departments", departments.size());
+        stats.put("appliedChanges", appliedChanges);
+        stats.put("reconciles", reconciles);
+        stats.put("lastReconcileDrift", lastReconcileDrift);
+        stats.put("lastReconciled", lastReconciled);
+        return stats;
+    }
+
+    private void reconcile() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            changesDuringReconcile = new ArrayList<>();
+        }
+
+        List<Object[]> rows;
+        try {
+            rows = QuarkusTransaction.requiringNew().call(() -> entityManager.createQuery(
+                    "SELECT u.department, u.salary, u.active, COUNT(u) FROM User u "
+                            + "GROUP BY u.department, u.salary, u.active", Object[].class)
+                    .getResultList());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changesDuringReconcile = null;
+            }
+            LOGGER.error("Department statistics reconcile failed, keeping the current model", e);
+            return;
+        }
+
+        Map<String, Department> rebuilt = new HashMap<>();
+        for (Object[] row : rows) {
+            String department = row[0] == null ? NO_DEPARTMENT : (String) row[0];
+            Double salary = row[1] == null ? null : ((Number) row[1]).doubleValue();
+            rebuilt.computeIfAbsent(department, key -> new Department())
+                    .add(Boolean.TRUE.equals(row[2]), salary, ((Number) row[3]).longValue());
+        }
+
+        synchronized (this) {
+            // The query may already contain some of these; the next reconcile corrects that
+            for (Change change : changesDuringReconcile) {
+                applyTo(rebuilt, change);
+            }
+            changesDuringReconcile = null;
+            int drift = 0;
+            for (String department : union(departments, rebuilt)) {
+                if (!Objects.equals(departments.get(department), rebuilt.get(department))) {
+                    drift++;
+                }
+            }
+            lastReconcileDrift = ready ? drift : 0;
+            departments = rebuilt;
+            reconciles++;
+            lastReconciled = LocalDateTime.now();
+            ready = true;
+        }
+        LOGGER.info("Department statistics reconciled: {} departments from {} groups in {} ms, drift {}",
+                rebuilt.size(), rows.size(), (System.nanoTime() - start) / 1_000_000, lastReconcileDrift);
+    }
+
+    private synchronized void apply(Change change) {
+        if (changesDuringReconcile != null) {
+            changesDuringReconcile.add(change);
+        }
+        applyTo(departments, change);
+        appliedChanges++;
+    }
+
+    private static void applyTo(Map<String, Department> target, Change change) {
+        if (change.before() != null) {
+            String key = key(change.before());
+            Department stats = target.get(key);
+            if (stats != null) {
+                stats.add(change.before().active(), change.before().salary(), -1);
+                if (stats.total <= 0) {
+                    target.remove(key);
+                }
+            }
+        }
+        if (change.after() != null) {
+            target.computeIfAbsent(key(change.after()), k -> new Department())
+                    .add(change.after().active(), change.after().salary(), 1);
+        }
+    }
+
+    private static String key(Snapshot snapshot) {
+        return snapshot.department() == null ? NO_DEPARTMENT : snapshot.department();
+    }
+
+    private static List<String> union(Map<String, Department> a, Map<String, Department> b) {
+        List<String> keys = new ArrayList<>(a.keySet());
+        b.keySet().stream().filter(key -> !a.containsKey(key)).forEach(keys::add);
+        return keys;
+    }
+
+    /**
+     * Counters of one department; salaries maps each salary to the number of users earning it.
+     */
+    private static final class Department {
+        private long total;
+        private long active;
+        private double salarySum;
+        private long salaryCount;
+        private final TreeMap<Double, Long> salaries = new TreeMap<>();
+
+        private void add(boolean isActive, Double salary, long count) {
+            total += count;
+            if (isActive) {
+                active += count;
+            }
+            if (salary != null) {
+                salarySum += salary * count;
+                salaryCount += count;
+                long remaining = salaries.getOrDefault(salary, 0L) + count;
+                if (remaining > 0) {
+                    salaries.put(salary, remaining);
+                } else {
+                    salaries.remove(salary);
+                }
+            }
+        }
+
+        private DepartmentStatsDTO toDTO(String department) {
+            return new DepartmentStatsDTO(department, total, active, salarySum,
+                    salaryCount == 0 ? null : salarySum / salaryCount,
+                    salaries.isEmpty() ? null : salaries.firstKey(),
+                    salaries.isEmpty() ? null : salaries.lastKey());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Department other)) return false;
+            return total == other.total && active == other.active && salaries.equals(other.salaries);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(total, active, salaries);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.testing.transactional.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Dialect checks for repositories that take an Oracle-specific fast path
+ * (PL/SQL blocks with RETURNING INTO) and fall back to portable HQL elsewhere.
+ */
+final class Dialects {
+
+    private Dialects() {
+    }
+
+    static boolean isOracle(EntityManager entityManager) {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof OracleDialect;
+    }
+}
@@ -0,0 +1,37 @@
+package org.testing.transactional.repository;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.testing.transactional.model.IdempotencyKey;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@ApplicationScoped
+public class IdempotencyKeyRepository implements PanacheRepositoryBase<IdempotencyKey, String> {
+
+    /**
+     * Stored outcome for a key, ignoring rows that expired but were not cleaned up yet.
+     */
+    public Optional<IdempotencyKey> findLive(String key, LocalDateTime now) {
+        return find("key = ?1 and expiresAt >= ?2", key, now).firstResultOptional();
+    }
+
+    /**
+     * Writes the response of a reserved key with a single UPDATE.
+     */
+    public int complete(String key, int httpStatus, String responseBody) {
+        return update("httpStatus = ?1, responseBody = ?2 where key = ?3", httpStatus, responseBody, key);
+    }
+
+    public long deleteExpired(String key, LocalDateTime now) {
+        return delete("key = ?1 and expiresAt < ?2", key, now);
+    }
+
+    /**
+     * Bulk cleanup: one DELETE for every expired key, served by the EXPIRES_AT index.
+     */
+    public long deleteAllExpired(LocalDateTime now) {
+        return delete("expiresAt < ?1", now);
+    }
+}
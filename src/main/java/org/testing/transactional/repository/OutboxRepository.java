@@ -0,0 +1,146 @@
+package org.testing.transactional.repository;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.Session;
+import org.testing.transactional.dto.OutboxMessage;
+import org.testing.transactional.model.OutboxEvent;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+@ApplicationScoped
+public class OutboxRepository implements PanacheRepository<OutboxEvent> {
+
+    private static final String ACQUIRE_LEASE = "SELECT LAST_ID FROM OUTBOX_RELAY_LEASE WHERE ID = 1 FOR UPDATE SKIP LOCKED";
+
+    private static final String UPDATE_LAST_ID = "UPDATE OUTBOX_RELAY_LEASE SET LAST_ID = ? WHERE ID = 1";
+
+    private static final String CHECK_LEASE = "SELECT COUNT(*) FROM OUTBOX_RELAY_LEASE WHERE ID = 1";
+
+    private static final String FIND_OLDEST = """
+            SELECT ID, AGGREGATE_TYPE, AGGREGATE_ID, EVENT_TYPE, OPERATED_BY, PAYLOAD, CREATED_AT
+              FROM TEST_OUTBOX
+             ORDER BY ID
+            """;
+
+    private static final String INSERT_AUDIT = """
+            INSERT INTO USER_AUDIT_LOG
+            (ID, USER_ID, OPERATION, OPERATED_BY, OPERATION_TIME)
+            VALUES
+            (USER_AUDIT_SEQ.NEXTVAL, ?, ?, ?, ?)
+            """;
+
+    private static final String DELETE_BY_ID = "DELETE FROM TEST_OUTBOX WHERE ID = ?";
+
+    /**
+     * Locks the single OUTBOX_RELAY_LEASE row until the current transaction ends and returns the id of the
+     * last event relayed in order; null when another relay holds it. Only the lease holder reads and
+     * deletes outbox rows, so batches never interleave.
+     */
+    public Long acquireRelayLease() {
+        return session().doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(ACQUIRE_LEASE);
+                 ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        });
+    }
+
+    /**
+     * Moves the relay cursor on the lease row; commits together with the relayed batch.
+     */
+    public void updateLastRelayedId(long lastId) {
+        session().doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_LAST_ID)) {
+                ps.setLong(1, lastId);
+                ps.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * True when db/outbox.sql has been applied (lease table present and seeded); a missing table fails
+     * with the database error.
+     */
+    public boolean relayLeaseExists() {
+        return session().doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(CHECK_LEASE);
+                 ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        });
+    }
+
+    /**
+     * Up to {@code limit} of the oldest outbox rows; the caller must hold the relay lease.
+     * As with the settlement claim, the limit is applied while fetching rather than with ROWNUM.
+     */
+    public List<OutboxMessage> findOldest(int limit) {
+        return session().doReturningWork(connection -> {
+            List<OutboxMessage> messages = new ArrayList<>(limit);
+            try (PreparedStatement ps = connection.prepareStatement(FIND_OLDEST)) {
+                ps.setFetchSize(limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (messages.size() < limit && rs.next()) {
+                        long aggregateId = rs.getLong(3);
+                        messages.add(new OutboxMessage(
+                                rs.getLong(1),
+                                rs.getString(2),
+                                rs.wasNull() ? null : aggregateId,
+                                rs.getString(4),
+                                rs.getString(5),
+                                rs.getString(6),
+                                rs.getTimestamp(7).toLocalDateTime()));
+                    }
+                }
+            }
+            return messages;
+        });
+    }
+
+    /**
+     * Copies relayed events into USER_AUDIT_LOG with one JDBC batch.
+     */
+    public void insertAuditRows(List<OutboxMessage> messages) {
+        session().doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_AUDIT)) {
+                for (OutboxMessage message : messages) {
+                    if (message.aggregateId() == null) {
+                        ps.setNull(1, Types.NUMERIC);
+                    } else {
+                        ps.setLong(1, message.aggregateId());
+                    }
+                    ps.setString(2, message.eventType());
+                    ps.setString(3, message.operatedBy());
+                    ps.setTimestamp(4, Timestamp.valueOf(message.createdAt()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Removes relayed rows with one JDBC batch of primary-key deletes.
+     */
+    public void deleteRelayed(List<OutboxMessage> messages) {
+        session().doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(DELETE_BY_ID)) {
+                for (OutboxMessage message : messages) {
+                    ps.setLong(1, message.id());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    private Session session() {
+        return getEntityManager().unwrap(Session.class);
+    }
+}
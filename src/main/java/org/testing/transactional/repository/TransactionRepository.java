@@ -1,10 +1,22 @@
 package org.testing.transactional.repository;
 
-import io.quarkus.cache.CacheResult;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.testing.transactional.dto.SettlementResult;
+import org.testing.transactional.model.Card;
 import org.testing.transactional.model.Transaction;
 
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +28,50 @@ import java.util.Optional;
 public class TransactionRepository implements PanacheRepository<Transaction> {
 
     /**
-     * Finds a Transaction by Account Number with caching for improved performance.
+     * Settles all PENDING top-ups of a card in one round trip: locks the card row (every writer
+     * of pending top-ups locks it too, so the pending set can't change underneath), flips the
+     * rows to SUCCESS while summing their amounts, and credits the card with that sum.
+     */
+    private static final String ORACLE_SETTLE_PENDING = """
+            DECLARE
+                v_count   NUMBER := -1;
+                v_total   NUMBER := 0;
+                v_balance NUMBER := 0;
+                v_id      NUMBER;
+            BEGIN
+                UPDATE TEST_CARD SET UPDATED_AT = ? WHERE CARD_NO = ?;
+                IF SQL%ROWCOUNT > 0 THEN
+                    UPDATE TEST_TRANSACTION
+                       SET STATUS = ?, UPDATED_AT = ?
+                     WHERE CARD_NO = ? AND TYPE = ? AND STATUS = ?
+                    RETURNING SUM(AMOUNT) INTO v_total;
+                    v_count := SQL%ROWCOUNT;
+                    v_total := NVL(v_total, 0);
+
+                    UPDATE TEST_CARD SET BALANCE = BALANCE + v_total WHERE CARD_NO = ?
+                    RETURNING ID, BALANCE INTO v_id, v_balance;
+                END IF;
+                ? := v_count;
+                ? := v_total;
+                ? := v_balance;
+                ? := v_id;
+            END;
+            """;
+
+    private static final String CLAIM_CARDS_WITH_PENDING_TOPUPS = """
+            SELECT c.CARD_NO
+              FROM TEST_CARD c
+             WHERE EXISTS (SELECT 1
+                             FROM TEST_TRANSACTION t
+                            WHERE t.CARD_NO = c.CARD_NO AND t.TYPE = ? AND t.STATUS = ?)
+               FOR UPDATE SKIP LOCKED
+            """;
+
+    private volatile Boolean oracle;
+
+    /**
+     * Finds a Transaction by Account Number.
      */
-    @CacheResult(cacheName = "user-cache")
     public Optional<Transaction> findByAccountNumber(String accountNumber) {
         return find("accountNumber", accountNumber).firstResultOptional();
     }
@@ -28,10 +81,185 @@ public class TransactionRepository implements PanacheRepository<Transaction> {
     }
 
     /**
-     * Finds a Transaction by Card Number with caching for improved performance.
+     * Finds a Transaction by Card Number.
      */
-    @CacheResult(cacheName = "user-cache")
     public Optional<Transaction> findByCardNo(String cardNo) {
         return find("cardNo", cardNo).firstResultOptional();
     }
+
+    /**
+     * Keyset page of a card's history: up to {@code rows} transactions with ID below {@code beforeId}
+     * (all of them when null), newest first, as id, cardType, transactionType, amount, status.
+     * Cost depends on the page size only, however old the card is.
+     */
+    public List<Object[]> findHistoryPage(String cardNo, Long beforeId, int rows) {
+        Session session = getEntityManager().unwrap(Session.class);
+        String where = beforeId == null ? "t.cardNo = ?1" : "t.cardNo = ?1 AND t.id < ?2";
+        SelectionQuery<Object[]> query = session.createSelectionQuery(
+                        "SELECT t.id, t.cardType, t.transactionType, t.amount, t.status FROM Transaction t WHERE "
+                                + where + " ORDER BY t.id DESC", Object[].class)
+                .setParameter(1, cardNo)
+                .setReadOnly(true)
+                .setMaxResults(rows);
+        if (beforeId != null) {
+            query.setParameter(2, beforeId);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Claims up to {@code limit} cards that have PENDING top-ups by locking their TEST_CARD rows
+     * with FOR UPDATE SKIP LOCKED. Rows already locked by another worker, thread or node are
+     * skipped instead of waited on, so settlement workers never block each other.
+     * The row limit is applied by fetching, not with ROWNUM, because Oracle evaluates ROWNUM
+     * before skipping locked rows and would return nothing once the first rows are taken.
+     */
+    public List<String> claimCardsWithPendingTopups(int limit) {
+        Session session = getEntityManager().unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            List<String> cardNos = new ArrayList<>(limit);
+            try (PreparedStatement ps = connection.prepareStatement(CLAIM_CARDS_WITH_PENDING_TOPUPS)) {
+                ps.setString(1, Transaction.TRX_TYPE_ENUM.TOPUP.name());
+                ps.setString(2, Transaction.TRX_STATUS_ENUM.PENDING.name());
+                ps.setFetchSize(limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (cardNos.size() < limit && rs.next()) {
+                        cardNos.add(rs.getString(1));
+                    }
+                }
+            }
+            return cardNos;
+        });
+    }
+
+    /**
+     * Number of PENDING top-up rows waiting for settlement.
+     */
+    public long countPendingTopups() {
+        return count("transactionType = ?1 and status = ?2",
+                Transaction.TRX_TYPE_ENUM.TOPUP.name(), Transaction.TRX_STATUS_ENUM.PENDING.name());
+    }
+
+    /**
+     * Number of distinct cards with at least one PENDING top-up.
+     */
+    public long countCardsWithPendingTopups() {
+        return getEntityManager()
+                .createQuery("SELECT COUNT(DISTINCT t.cardNo) FROM Transaction t WHERE t.transactionType = ?1 AND t.status = ?2",
+                        Long.class)
+                .setParameter(1, Transaction.TRX_TYPE_ENUM.TOPUP.name())
+                .setParameter(2, Transaction.TRX_STATUS_ENUM.PENDING.name())
+                .getSingleResult();
+    }
+
+    /**
+     * Set-based settlement of a card's PENDING top-ups. No Transaction entity is loaded,
+     * so memory use does not depend on how many rows are pending.
+     */
+    public SettlementResult settlePendingTopups(String cardNo) {
+        return settlePendingTopups(List.of(cardNo)).get(0);
+    }
+
+    /**
+     * Settles several cards (e.g. one claimed batch) and drops their stale second-level cache
+     * entries once for the whole batch.
+     */
+    public List<SettlementResult> settlePendingTopups(List<String> cardNos) {
+        List<SettlementResult> results = new ArrayList<>(cardNos.size());
+        boolean settledAny = false;
+        Cache cache = getEntityManager().getEntityManagerFactory().getCache();
+        for (String cardNo : cardNos) {
+            SettlementResult result = isOracle() ? settlePendingTopupsOracle(cardNo) : settlePendingTopupsPortable(cardNo);
+            if (result.getSettledCount() > 0) {
+                // Rows were changed behind Hibernate's back, drop the stale second-level cache entry
+                cache.evict(Card.class, result.getCardId());
+                settledAny = true;
+            }
+            results.add(result);
+        }
+        if (settledAny) {
+            // Transaction entries are not looked up by card, so the region goes as a whole, once per batch
+            cache.evict(Transaction.class);
+        }
+        return results;
+    }
+
+    private SettlementResult settlePendingTopupsOracle(String cardNo) {
+        Session session = getEntityManager().unwrap(Session.class);
+        return session.doReturningWork(connection -> {
+            try (CallableStatement cs = connection.prepareCall(ORACLE_SETTLE_PENDING)) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                cs.setTimestamp(1, now);
+                cs.setString(2, cardNo);
+                cs.setString(3, Transaction.TRX_STATUS_ENUM.SUCCESS.name());
+                cs.setTimestamp(4, now);
+                cs.setString(5, cardNo);
+                cs.setString(6, Transaction.TRX_TYPE_ENUM.TOPUP.name());
+                cs.setString(7, Transaction.TRX_STATUS_ENUM.PENDING.name());
+                cs.setString(8, cardNo);
+                cs.registerOutParameter(9, Types.INTEGER);
+                cs.registerOutParameter(10, Types.INTEGER);
+                cs.registerOutParameter(11, Types.INTEGER);
+                cs.registerOutParameter(12, Types.NUMERIC);
+                cs.execute();
+
+                int count = cs.getInt(9);
+                if (count < 0) {
+                    return SettlementResult.cardNotFound(cardNo);
+                }
+                return SettlementResult.settled(cardNo, cs.getLong(12), count, cs.getInt(10), cs.getInt(11));
+            }
+        });
+    }
+
+    /**
+     * Portable fallback: the same steps as the Oracle block, one HQL statement each.
+     */
+    private SettlementResult settlePendingTopupsPortable(String cardNo) {
+        EntityManager em = getEntityManager();
+        LocalDateTime now = LocalDateTime.now();
+
+        int locked = em.createQuery("UPDATE Card c SET c.updatedAt = ?1 WHERE c.cardNo = ?2")
+                .setParameter(1, now)
+                .setParameter(2, cardNo)
+                .executeUpdate();
+        if (locked == 0) {
+            return SettlementResult.cardNotFound(cardNo);
+        }
+
+        Object[] pending = em.createQuery("""
+                        SELECT COALESCE(SUM(t.amount), 0), COUNT(t)
+                        FROM Transaction t
+                        WHERE t.cardNo = ?1 AND t.transactionType = ?2 AND t.status = ?3
+                        """, Object[].class)
+                .setParameter(1, cardNo)
+                .setParameter(2, Transaction.TRX_TYPE_ENUM.TOPUP.name())
+                .setParameter(3, Transaction.TRX_STATUS_ENUM.PENDING.name())
+                .getSingleResult();
+        int total = ((Number) pending[0]).intValue();
+        int count = ((Number) pending[1]).intValue();
+
+        if (count > 0) {
+            update("status = ?1, updatedAt = ?2 where cardNo = ?3 and transactionType = ?4 and status = ?5",
+                    Transaction.TRX_STATUS_ENUM.SUCCESS.name(), now, cardNo,
+                    Transaction.TRX_TYPE_ENUM.TOPUP.name(), Transaction.TRX_STATUS_ENUM.PENDING.name());
+            em.createQuery("UPDATE Card c SET c.balance = c.balance + ?1 WHERE c.cardNo = ?2")
+                    .setParameter(1, total)
+                    .setParameter(2, cardNo)
+                    .executeUpdate();
+        }
+
+        Object[] card = em.createQuery("SELECT c.id, c.balance FROM Card c WHERE c.cardNo = ?1", Object[].class)
+                .setParameter(1, cardNo)
+                .setMaxResults(1)
+                .getSingleResult();
+        return SettlementResult.settled(cardNo, (Long) card[0], count, total, (Integer) card[1]);
+    }
+
+    private boolean isOracle() {
+        if (oracle == null) {
+            oracle = Dialects.isOracle(getEntityManager());
+        }
+        return oracle;
+    }
 }
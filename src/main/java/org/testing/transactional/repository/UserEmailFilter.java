@@ -0,0 +1,310 @@
+package org.testing.transactional.repository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter over the normalized (trimmed, lower-case) emails of TEST_USERS.
+ * {@link UserRepository#emailExists} and friends ask it first: "definitely absent" is answered
+ * without a database round trip, only a possible hit falls through to the query.
+ * <p>
+ * The filter is sized from the row count at build time for target-fpp, capped by memory-budget-mb.
+ * Emails are added when a user is persisted (before commit, so a concurrent check can never miss a
+ * committed row); emails that are later changed or deleted stay in the filter and only cost a false
+ * positive until the next scheduled rebuild. Emails added within add-grace (at most add-grace-max-entries) before a rebuild starts are
+ * replayed into the new filter, since their transaction may commit after the rebuild's snapshot.
+ * <p>
+ * Single node only: {@link #add} updates the local filter, so on other nodes an email inserted elsewhere
+ * is "definitely absent" until their next rebuild, and a duplicate then fails on the EMAIL unique
+ * constraint instead of the "Email already exists" check. Keep it disabled when several nodes share
+ * TEST_USERS.
+ */
+@ApplicationScoped
+public class UserEmailFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserEmailFilter.class);
+
+    private static final int MAX_HASH_FUNCTIONS = 16;
+    private static final long MIN_BITS = 1L << 16;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "user.email-filter.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "user.email-filter.memory-budget-mb", defaultValue = "16")
+    int memoryBudgetMb;
+
+    @ConfigProperty(name = "user.email-filter.target-fpp", defaultValue = "0.01")
+    double targetFpp;
+
+    // Ruang untuk pertumbuhan sampai rebuild berikutnya
+    @ConfigProperty(name = "user.email-filter.growth-factor", defaultValue = "2.0")
+    double growthFactor;
+
+    @ConfigProperty(name = "user.email-filter.load-fetch-size", defaultValue = "5000")
+    int loadFetchSize;
+
+    // Paling tidak selama transaction timeout: add() sebelum rebuild bisa commit setelah snapshot load
+    @ConfigProperty(name = "user.email-filter.add-grace", defaultValue = "10m")
+    Duration addGrace;
+
+    @ConfigProperty(name = "user.email-filter.add-grace-max-entries", defaultValue = "100000")
+    int addGraceMaxEntries;
+
+    private volatile Bloom filter;
+    private List<String> addedDuringRebuild;
+    private final Deque<RecentAdd> recentlyAdded = new ArrayDeque<>();
+    private volatile LocalDateTime lastBuilt;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder definitelyAbsent = new LongAdder();
+    private final LongAdder possibleHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    private record RecentAdd(long nanos, String email) {
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Periodic rebuild drops emails that no longer exist and resizes for the current row count.
+     */
+    @Scheduled(every = "${user.email-filter.rebuild-interval:6h}", delayed = "${user.email-filter.rebuild-interval:6h}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * False only when {@code email} is certainly not in TEST_USERS. Always true while the filter is not built.
+     */
+    public boolean mightContain(String email) {
+        Bloom current = filter;
+        if (current == null || email == null) {
+            return true;
+        }
+        checks.increment();
+        if (current.mightContain(normalize(email))) {
+            possibleHits.increment();
+            return true;
+        }
+        definitelyAbsent.increment();
+        return false;
+    }
+
+    /**
+     * Reports the database answer for a possible hit, feeding the false-positive rate.
+     */
+    public boolean recordLookup(boolean exists) {
+        if (filter != null && !exists) {
+            falsePositives.increment();
+        }
+        return exists;
+    }
+
+    /**
+     * Adds the email of a user being inserted or updated. Call before the transaction commits.
+     */
+    public void add(String email) {
+        if (!enabled || email == null) {
+            return;
+        }
+        String normalized = normalize(email);
+        synchronized (this) {
+            if (filter != null) {
+                filter.put(normalized);
+            }
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(normalized);
+            }
+            long now = System.nanoTime();
+            pruneRecentlyAdded(now);
+            recentlyAdded.addLast(new RecentAdd(now, normalized));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Bloom current = filter;
+        long hits = possibleHits.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", current != null);
+        stats.put("checks", checks.sum());
+        stats.put("definitelyAbsent", definitelyAbsent.sum());
+        stats.put("possibleHits", hits);
+        stats.put("falsePositives", falsePositives.sum());
+        stats.put("falsePositiveRate", hits == 0 ? 0.0 : (double) falsePositives.sum() / hits);
+        stats.put("bits", current == null ? 0 : current.bits);
+        stats.put("hashFunctions", current == null ? 0 : current.hashFunctions);
+        stats.put("memoryBytes", current == null ? 0 : current.bits / 8);
+        stats.put("expectedFpp", current == null ? 0.0 : current.expectedFpp());
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("lastBuilt", lastBuilt);
+        return stats;
+    }
+
+    private void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            pruneRecentlyAdded(System.nanoTime());
+            addedDuringRebuild = new ArrayList<>();
+            recentlyAdded.forEach(recent -> addedDuringRebuild.add(recent.email()));
+        }
+        Bloom next;
+        long rows;
+        try {
+            rows = QuarkusTransaction.requiringNew().call(() -> entityManager.createQuery(
+                    "SELECT COUNT(u) FROM User u", Long.class).getSingleResult());
+            double expected = Math.max(rows * growthFactor, 1);
+            next = new Bloom(bitsFor(expected), expected);
+            QuarkusTransaction.requiringNew().run(() -> load(next));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+            LOGGER.error("Email filter rebuild failed, keeping the previous filter", e);
+            return;
+        }
+
+        synchronized (this) {
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.forEach(next::put);
+            }
+            addedDuringRebuild = null;
+            filter = next;
+        }
+        lastBuilt = LocalDateTime.now();
+        rebuilds.increment();
+        LOGGER.info("Email filter built over {} users: {} KB, {} hash functions, expected fpp {} in {} ms",
+                rows, next.bits / 8 / 1024, next.hashFunctions, String.format("%.4f", next.expectedFpp()),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void pruneRecentlyAdded(long now) {
+        long grace = addGrace.toNanos();
+        while (!recentlyAdded.isEmpty()
+                && (now - recentlyAdded.peekFirst().nanos() > grace || recentlyAdded.size() >= addGraceMaxEntries)) {
+            recentlyAdded.removeFirst();
+        }
+    }
+
+    private void load(Bloom target) {
+        Session session = entityManager.unwrap(Session.class);
+        try (Stream<String> emails = session.createSelectionQuery("SELECT u.email FROM User u", String.class)
+                .setReadOnly(true)
+                .setFetchSize(loadFetchSize)
+                .getResultStream()) {
+            for (Iterator<String> it = emails.iterator(); it.hasNext(); ) {
+                target.put(normalize(it.next()));
+            }
+        }
+    }
+
+    /**
+     * Bits needed for {@code expected} entries at target-fpp, capped by the memory budget.
+     */
+    private long bitsFor(double expected) {
+        long wanted = (long) Math.ceil(-expected * Math.log(targetFpp) / (Math.log(2) * Math.log(2)));
+        long budget = Math.min(memoryBudgetMb * 8L * 1024 * 1024, Integer.MAX_VALUE * 64L);
+        return Math.max(MIN_BITS, Math.min(wanted, budget));
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fixed-size bit array with k probes from double hashing (h1 + i * h2) of a 64-bit FNV-1a hash.
+     */
+    private static final class Bloom {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashFunctions;
+        private final LongAdder insertions = new LongAdder();
+
+        private Bloom(long requestedBits, double expectedInsertions) {
+            this.words = new AtomicLongArray((int) ((requestedBits + 63) / 64));
+            this.bits = words.length() * 64L;
+            // Optimal k for the bits actually granted, lower than for target-fpp when the budget capped them
+            int k = (int) Math.round(bits / expectedInsertions * Math.log(2));
+            this.hashFunctions = Math.max(1, Math.min(MAX_HASH_FUNCTIONS, k));
+        }
+
+        private void put(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                if ((words.get(word) & mask) == 0) {
+                    words.getAndAccumulate(word, mask, (current, m) -> current | m);
+                }
+            }
+            insertions.increment();
+        }
+
+        private boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashFunctions; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private double expectedFpp() {
+            return Math.pow(1 - Math.exp(-(double) hashFunctions * insertions.sum() / bits), hashFunctions);
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+            value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return value ^ (value >>> 33);
+        }
+    }
+}
@@ -1,18 +1,43 @@
 package org.testing.transactional.repository;
 
-import io.quarkus.cache.CacheResult;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.panache.common.Page;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.testing.transactional.common.KeysetCursor;
 import org.testing.transactional.common.PaginationRequest;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.PageResult;
+import org.testing.transactional.exeption.BusinessException;
 import org.testing.transactional.model.User;
 
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Repository for User entity with optimized queries for handling large datasets.
@@ -21,14 +46,58 @@ import java.util.Optional;
 @ApplicationScoped
 public class UserRepository implements PanacheRepository<User> {
 
+    /**
+     * Fields a page may be sorted by in OFFSET mode; keyset mode is limited further by {@link UserSortKey}.
+     */
+    private static final Set<String> OFFSET_SORT_FIELDS = new TreeSet<>(List.of(
+            "id", "firstName", "lastName", "email", "department", "position", "salary",
+            "active", "createdAt", "updatedAt"));
+
+    // Oracle menolak IN list dengan lebih dari 1000 elemen (ORA-01795)
+    static final int ORACLE_IN_LIMIT = 1000;
+
+    @Inject
+    UserSearchIndex searchIndex;
+
+    @Inject
+    UserEmailFilter emailFilter;
+
+    @Inject
+    DepartmentStatsReadModel departmentStats;
+
+    @ConfigProperty(name = "user.bulk-by-id-chunk-size", defaultValue = "500")
+    int bulkByIdChunkSize;
+
+    @ConfigProperty(name = "user.count.approximate-refresh", defaultValue = "60s")
+    Duration approximateRefresh;
+
+    @ConfigProperty(name = "user.count.approximate-max-entries", defaultValue = "1000")
+    long approximateMaxEntries;
+
+    /**
+     * Counts for TotalMode.APPROXIMATE. Once loaded an entry is served as is and reloaded
+     * asynchronously after approximate-refresh, so requests never wait on a count again.
+     */
+    private LoadingCache<CountKey, Long> approximateCounts;
+
+    @PostConstruct
+    void init() {
+        approximateCounts = Caffeine.newBuilder()
+                .maximumSize(approximateMaxEntries)
+                .refreshAfterWrite(approximateRefresh)
+                .build(this::countInNewTransaction);
+    }
+
     public boolean existsByEmail(String email) {
-        return find("email", email).firstResultOptional().isPresent();
+        if (!emailFilter.mightContain(email)) {
+            return false;
+        }
+        return emailFilter.recordLookup(find("email", email).firstResultOptional().isPresent());
     }
 
     /**
-     * Finds a user by email with caching for improved performance.
+     * Finds a user by email.
      */
-    @CacheResult(cacheName = "user-cache")
     public Optional<User> findByEmail(String email) {
         return find("email", email).firstResultOptional();
     }
@@ -38,13 +107,16 @@ public class UserRepository implements PanacheRepository<User> {
      * Optimized for large datasets.
      */
     public PanacheQuery<User> findActiveUsersPaginated(PaginationRequest pagination) {
-        String query = "active = true";
-        Sort sort = buildSort(pagination);
-
-        PanacheQuery<User> panacheQuery = find(query, sort);
-        panacheQuery.page(Page.of(pagination.getPage(), pagination.getSize()));
+        return paginate("active = true", new Parameters(), pagination, buildSort(pagination),
+                sortKey(pagination), keysetAscending(pagination));
+    }
 
-        return panacheQuery;
+    /**
+     * Active users page with its total (see {@link #pageWithTotal}).
+     */
+    public PageResult<User> findActiveUsersPage(PaginationRequest pagination) {
+        return pageWithTotal("active = true", new Parameters(), pagination, buildSort(pagination),
+                sortKey(pagination), keysetAscending(pagination));
     }
 
     /**
@@ -52,13 +124,8 @@ public class UserRepository implements PanacheRepository<User> {
      * Uses indexed query for performance.
      */
     public PanacheQuery<User> findByDepartmentPaginated(String department, PaginationRequest pagination) {
-        String query = "department = ?1 AND active = true";
-        Sort sort = buildSort(pagination);
-
-        PanacheQuery<User> panacheQuery = find(query, sort, department);
-        panacheQuery.page(Page.of(pagination.getPage(), pagination.getSize()));
-
-        return panacheQuery;
+        return paginate("department = :department AND active = true", Parameters.with("department", department),
+                pagination, buildSort(pagination), sortKey(pagination), keysetAscending(pagination));
     }
 
     /**
@@ -68,86 +135,152 @@ public class UserRepository implements PanacheRepository<User> {
     public PanacheQuery<User> advancedSearch(String searchTerm, String department,
                                              Boolean active, Double minSalary, Double maxSalary,
                                              PaginationRequest pagination) {
+        Parameters params = new Parameters();
+        String where = searchCriteria(searchTerm, department, active, minSalary, maxSalary, params);
+        return paginate(where, params, pagination, buildSort(pagination),
+                sortKey(pagination), keysetAscending(pagination));
+    }
+
+    /**
+     * Search page with its total (see {@link #pageWithTotal}).
+     */
+    public PageResult<User> advancedSearchPage(String searchTerm, String department,
+                                               Boolean active, Double minSalary, Double maxSalary,
+                                               PaginationRequest pagination) {
+        Parameters params = new Parameters();
+        String where = searchCriteria(searchTerm, department, active, minSalary, maxSalary, params);
+        return pageWithTotal(where, params, pagination, buildSort(pagination),
+                sortKey(pagination), keysetAscending(pagination));
+    }
+
+    private String searchCriteria(String searchTerm, String department, Boolean active,
+                                  Double minSalary, Double maxSalary, Parameters params) {
         StringBuilder queryBuilder = new StringBuilder("1=1");
+        // Only criteria that are present are bound, so absent filters don't leave unused parameters
 
         // Build dynamic query based on provided criteria
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            queryBuilder.append(" AND (UPPER(firstName) LIKE UPPER(?1) OR UPPER(lastName) LIKE UPPER(?1) OR UPPER(email) LIKE UPPER(?1))");
+            // Trigram index resolves matching ids in memory; the LIKE scan is the fallback
+            Optional<List<Long>> matches = searchIndex.search(searchTerm);
+            if (matches.isPresent() && matches.get().isEmpty()) {
+                queryBuilder.append(" AND 1=0");
+            } else if (matches.isPresent()) {
+                queryBuilder.append(" AND id IN :ids");
+                params.and("ids", padInList(matches.get()));
+            } else {
+                queryBuilder.append(" AND (UPPER(firstName) LIKE UPPER(:term) OR UPPER(lastName) LIKE UPPER(:term) OR UPPER(email) LIKE UPPER(:term))");
+                params.and("term", "%" + searchTerm + "%");
+            }
         }
 
         if (department != null && !department.trim().isEmpty()) {
-            queryBuilder.append(" AND department = ?2");
+            queryBuilder.append(" AND department = :department");
+            params.and("department", department);
         }
 
         if (active != null) {
-            queryBuilder.append(" AND active = ?3");
+            queryBuilder.append(" AND active = :active");
+            params.and("active", active);
         }
 
         if (minSalary != null) {
-            queryBuilder.append(" AND salary >= ?4");
+            queryBuilder.append(" AND salary >= :minSalary");
+            params.and("minSalary", minSalary);
         }
 
         if (maxSalary != null) {
-            queryBuilder.append(" AND salary <= ?5");
+            queryBuilder.append(" AND salary <= :maxSalary");
+            params.and("maxSalary", maxSalary);
         }
 
-        Sort sort = buildSort(pagination);
-
-        // Execute query with parameters
-        PanacheQuery<User> query = find(queryBuilder.toString(), sort,
-                searchTerm != null ? "%" + searchTerm + "%" : null,
-                department,
-                active,
-                minSalary,
-                maxSalary);
+        return queryBuilder.toString();
+    }
 
-        query.page(Page.of(pagination.getPage(), pagination.getSize()));
-        return query;
+    /**
+     * Pads {@code ids} with its last id to the next power of two (at most ORACLE_IN_LIMIT), so the
+     * index-backed search uses a handful of statement shapes instead of one per result size.
+     * The index never returns more than ORACLE_IN_LIMIT ids.
+     */
+    private static List<Long> padInList(List<Long> ids) {
+        int size = Math.min(Integer.highestOneBit(Math.max(ids.size() - 1, 1)) << 1, ORACLE_IN_LIMIT);
+        List<Long> padded = new ArrayList<>(ids);
+        Long last = ids.get(ids.size() - 1);
+        while (padded.size() < size) {
+            padded.add(last);
+        }
+        return padded;
     }
 
     /**
-     * Counts active users efficiently using a lightweight count query.
+     * Counts active users; served by the department statistics read model once it is loaded.
      */
-    @CacheResult(cacheName = "user-cache")
     public long countActiveUsers() {
+        if (departmentStats.isReady()) {
+            return departmentStats.activeUsers();
+        }
         return count("active = true");
     }
 
     /**
-     * Counts users by department with caching.
+     * Counts active users of a department; served by the department statistics read model once it is loaded.
      */
-    @CacheResult(cacheName = "user-cache")
     public long countByDepartment(String department) {
+        if (departmentStats.isReady()) {
+            return departmentStats.activeUsers(department);
+        }
         return count("department = ?1 AND active = true", department);
     }
 
     /**
      * Bulk update operation for updating user active status.
-     * Optimized for batch processing.
+     * Ids are bound as one collection parameter per chunk (see {@link #updateByIds}).
      */
     public int bulkUpdateActiveStatus(List<Long> userIds, Boolean active, String updatedBy) {
-        if (userIds == null || userIds.isEmpty()) {
-            return 0;
-        }
-
-        StringBuilder queryBuilder = new StringBuilder();
-        queryBuilder.append("UPDATE User u SET u.active = ?1, u.updatedBy = ?2 WHERE u.id IN (");
+        return updateByIds("active = :active, updatedBy = :updatedBy",
+                Parameters.with("active", active).and("updatedBy", updatedBy).map(), userIds);
+    }
 
-        for (int i = 0; i < userIds.size(); i++) {
-            if (i > 0) queryBuilder.append(",");
-            queryBuilder.append("?").append(i + 3);
-        }
-        queryBuilder.append(")");
+    /**
+     * Soft delete for many users at once.
+     */
+    public int softDeleteAll(Collection<Long> userIds, String updatedBy) {
+        return updateByIds("active = false, updatedBy = :updatedBy", Parameters.with("updatedBy", updatedBy).map(), userIds);
+    }
 
-        Object[] params = new Object[userIds.size() + 2];
-        params[0] = active;
-        params[1] = updatedBy;
+    /**
+     * Restores many soft-deleted users at once.
+     */
+    public int restoreAll(Collection<Long> userIds, String updatedBy) {
+        return updateByIds("active = true, updatedBy = :updatedBy", Parameters.with("updatedBy", updatedBy).map(), userIds);
+    }
 
-        for (int i = 0; i < userIds.size(); i++) {
-            params[i + 2] = userIds.get(i);
+    /**
+     * Runs {@code UPDATE User SET <setClause> WHERE id IN :ids} over {@code userIds} in chunks of
+     * bulk-by-id-chunk-size. Each chunk is padded with its last id to exactly the chunk size, so every
+     * call - whatever the input size - uses the same statement text: one Hibernate query plan and one
+     * Oracle cursor instead of one per distinct list length, and never more than 1000 IN items.
+     * Ids are de-duplicated and sorted so concurrent bulk updates lock rows in the same order.
+     */
+    private int updateByIds(String setClause, Map<String, Object> params, Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return 0;
         }
-
-        return update(queryBuilder.toString(), params);
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().sorted().toList();
+        int chunkSize = Math.min(bulkByIdChunkSize, ORACLE_IN_LIMIT);
+        String query = setClause + " where id in :ids";
+
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = new ArrayList<>(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            Long last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < chunkSize) {
+                chunk.add(last);
+            }
+            Map<String, Object> chunkParams = new HashMap<>(params);
+            chunkParams.put("ids", chunk);
+            updated += update(query, chunkParams);
+        }
+        return updated;
     }
 
     /**
@@ -160,9 +293,82 @@ public class UserRepository implements PanacheRepository<User> {
                 .list();
     }
 
+    /**
+     * firstName, lastName and email of a user, without loading the User entity.
+     */
+    public Optional<Object[]> findTransactionHeader(Long userId) {
+        return getEntityManager().unwrap(Session.class)
+                .createSelectionQuery("SELECT u.firstName, u.lastName, u.email FROM User u WHERE u.id = ?1", Object[].class)
+                .setParameter(1, userId)
+                .setReadOnly(true)
+                .uniqueResultOptional();
+    }
+
+    /**
+     * One row per (card, transaction) of a user, ordered by card, as scalar columns:
+     * cardNo, accountNumber, balance, cardType, transactionType, amount, status.
+     * Cards without transactions come back once with null transaction columns.
+     * Nothing is hydrated as an entity and rows are fetched in blocks of {@code fetchSize};
+     * the caller must close the stream.
+     */
+    public Stream<Object[]> streamCardTransactions(Long userId, int fetchSize) {
+        return getEntityManager().unwrap(Session.class)
+                .createSelectionQuery("""
+                        SELECT c.cardNo, c.accountNumber, c.balance,
+                               t.cardType, t.transactionType, t.amount, t.status
+                          FROM Card c
+                          LEFT JOIN Transaction t ON t.cardNo = c.cardNo
+                         WHERE c.user.id = ?1
+                         ORDER BY c.cardNo, t.id
+                        """, Object[].class)
+                .setParameter(1, userId)
+                .setReadOnly(true)
+                .setFetchSize(fetchSize)
+                .getResultStream();
+    }
+
+    /**
+     * Latest {@code perCardRows} transactions of every card of a user, picked with ROW_NUMBER()
+     * per card so the database never returns older rows. Columns: CARD_NO, ACCOUNT_NO, BALANCE,
+     * TRX_ID, CARD_TYPE, TYPE, AMOUNT, STATUS; newest first within each card. Cards without
+     * transactions come back once with null transaction columns. Served by IX_TRANSACTION_CARD_ID.
+     */
+    @SuppressWarnings("unchecked")
+    public Stream<Object[]> streamLatestCardTransactions(Long userId, int perCardRows) {
+        return getEntityManager().createNativeQuery("""
+                        SELECT CARD_NO, ACCOUNT_NO, BALANCE, TRX_ID, CARD_TYPE, TYPE, AMOUNT, STATUS
+                          FROM (SELECT c.CARD_NO, c.ACCOUNT_NO, c.BALANCE,
+                                       t.ID AS TRX_ID, t.CARD_TYPE, t.TYPE, t.AMOUNT, t.STATUS,
+                                       ROW_NUMBER() OVER (PARTITION BY c.CARD_NO ORDER BY t.ID DESC) AS RN
+                                  FROM TEST_CARD c
+                                  LEFT JOIN TEST_TRANSACTION t ON t.CARD_NO = c.CARD_NO
+                                 WHERE c.USER_ID = ?1) x
+                         WHERE RN <= ?2
+                         ORDER BY CARD_NO, TRX_ID DESC
+                        """)
+                .setParameter(1, userId)
+                .setParameter(2, perCardRows)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream();
+    }
+
+    /**
+     * cardNo, accountNumber and balance of a card, only if it belongs to the user.
+     */
+    public Optional<Object[]> findCardHeader(Long userId, String cardNo) {
+        return getEntityManager().unwrap(Session.class)
+                .createSelectionQuery("SELECT c.cardNo, c.accountNumber, c.balance FROM Card c WHERE c.user.id = ?1 AND c.cardNo = ?2",
+                        Object[].class)
+                .setParameter(1, userId)
+                .setParameter(2, cardNo)
+                .setReadOnly(true)
+                .uniqueResultOptional();
+    }
+
     /**
      * Gets department statistics using native SQL for better performance.
      * Returns aggregated data for reporting purposes.
+     * Rows: department, total_users, active_users, salary_sum, avg_salary, min_salary, max_salary.
      */
     public List<Object[]> getDepartmentStatistics() {
         EntityManager em = getEntityManager();
@@ -172,10 +378,11 @@ public class UserRepository implements PanacheRepository<User> {
                     department,
                     COUNT(*) as total_users,
                     COUNT(CASE WHEN active = 1 THEN 1 END) as active_users,
+                    SUM(salary) as salary_sum,
                     AVG(salary) as avg_salary,
                     MIN(salary) as min_salary,
                     MAX(salary) as max_salary
-                FROM APP.USERS 
+                FROM TEST_USERS
                 WHERE department IS NOT NULL 
                 GROUP BY department 
                 ORDER BY total_users DESC
@@ -192,13 +399,11 @@ public class UserRepository implements PanacheRepository<User> {
     public PanacheQuery<User> findByCreatedDateRange(java.time.LocalDateTime startDate,
                                                      java.time.LocalDateTime endDate,
                                                      PaginationRequest pagination) {
-        String query = "createdAt >= ?1 AND createdAt <= ?2 AND active = true";
+        String query = "createdAt >= :startDate AND createdAt <= :endDate AND active = true";
         Sort sort = Sort.by("createdAt").descending();
 
-        PanacheQuery<User> panacheQuery = find(query, sort, startDate, endDate);
-        panacheQuery.page(Page.of(pagination.getPage(), pagination.getSize()));
-
-        return panacheQuery;
+        return paginate(query, Parameters.with("startDate", startDate).and("endDate", endDate),
+                pagination, sort, UserSortKey.CREATED_AT, false);
     }
 
     /**
@@ -225,31 +430,256 @@ public class UserRepository implements PanacheRepository<User> {
             return Sort.by("createdAt").descending();
         }
 
+        // sortBy berasal dari query parameter dan ikut masuk ke teks HQL, jadi hanya field yang dikenal
+        if (!OFFSET_SORT_FIELDS.contains(pagination.getSortBy())) {
+            throw new BusinessException("sortBy must be one of " + OFFSET_SORT_FIELDS,
+                    ResponseCode.VALIDATION_ERROR.name());
+        }
+
         Sort.Direction direction = pagination.isAscending() ?
                 Sort.Direction.Ascending : Sort.Direction.Descending;
 
         return Sort.by(pagination.getSortBy()).direction(direction);
     }
 
+    /**
+     * OFFSET mode: {@code offsetSort} plus Page.of(page, size).
+     * KEYSET mode: ORDER BY key, id and a seek predicate after the cursor's (key, id), always from row 0,
+     * so page 10,000 costs the same index range scan as page 1.
+     */
+    private PanacheQuery<User> paginate(String where, Parameters params, PaginationRequest pagination,
+                                        Sort offsetSort, UserSortKey key, boolean ascending) {
+        PageSpec spec = pageSpec(where, params, pagination, offsetSort, key, ascending);
+        return find(spec.query(), spec.sort(), params).page(spec.page());
+    }
+
+    /**
+     * Same page as {@link #paginate} plus the total according to {@link PaginationRequest#getTotalMode()}:
+     * EXACT - COUNT(*) OVER () in the page query itself, one statement and one scan;
+     * APPROXIMATE - a cached count refreshed in the background, never blocking on a count once cached;
+     * NONE - no total. Keyset pages after the first carry no exact total (the seek predicate hides the
+     * rows before the cursor); clients keep the total from the first page.
+     */
+    private PageResult<User> pageWithTotal(String where, Parameters params, PaginationRequest pagination,
+                                           Sort offsetSort, UserSortKey key, boolean ascending) {
+        Map<String, Object> baseParams = new HashMap<>(params.map());
+        PageSpec spec = pageSpec(where, params, pagination, offsetSort, key, ascending);
+        boolean seeking = pagination.isKeyset() && pagination.hasCursor();
+
+        if (pagination.getTotalMode() == PaginationRequest.TotalMode.EXACT && !seeking) {
+            TypedQuery<Object[]> query = getEntityManager().createQuery(
+                    "SELECT u, COUNT(*) OVER () FROM User u WHERE " + spec.query() + orderBy(spec.sort()),
+                    Object[].class);
+            params.map().forEach(query::setParameter);
+            List<Object[]> rows = query
+                    .setFirstResult(spec.page().index * spec.page().size)
+                    .setMaxResults(spec.page().size)
+                    .getResultList();
+            List<User> users = rows.stream().map(row -> (User) row[0]).toList();
+            // Past the last page the window has no row to ride on, fall back to a plain count
+            long total = rows.isEmpty()
+                    ? (spec.page().index == 0 ? 0 : count(where, baseParams))
+                    : ((Number) rows.get(0)[1]).longValue();
+            return new PageResult<>(users, nextCursor(users, pagination), total, false);
+        }
+
+        List<User> users = find(spec.query(), spec.sort(), params).page(spec.page()).list();
+        String next = nextCursor(users, pagination);
+        if (pagination.getTotalMode() == PaginationRequest.TotalMode.APPROXIMATE) {
+            return new PageResult<>(users, next, approximateCounts.get(new CountKey(where, baseParams)), true);
+        }
+        return new PageResult<>(users, next);
+    }
+
+    private PageSpec pageSpec(String where, Parameters params, PaginationRequest pagination,
+                              Sort offsetSort, UserSortKey key, boolean ascending) {
+        int size = pagination.getEffectiveSize();
+        if (!pagination.isKeyset()) {
+            return new PageSpec(where, offsetSort, Page.of(pagination.getPage(), size));
+        }
+
+        Sort.Direction direction = ascending ? Sort.Direction.Ascending : Sort.Direction.Descending;
+        Sort sort = Sort.by(key.field, direction).and("id", direction);
+        String query = where;
+
+        if (pagination.hasCursor()) {
+            KeysetCursor cursor = KeysetCursor.decode(pagination.getCursor());
+            if (!cursor.getSortBy().equals(key.field) || cursor.isAscending() != ascending) {
+                throw new BusinessException("Cursor does not match the requested sort order",
+                        ResponseCode.VALIDATION_ERROR.name());
+            }
+            String op = ascending ? ">" : "<";
+            query = "(" + where + ") AND (" + key.field + " " + op + " :seekValue OR ("
+                    + key.field + " = :seekValue AND id " + op + " :seekId))";
+            params.and("seekValue", key.parse(cursor.getValue())).and("seekId", cursor.getId());
+        }
+
+        return new PageSpec(query, sort, Page.ofSize(size));
+    }
+
+    private static String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Column column : sort.getColumns()) {
+            orderBy.append(orderBy.length() == 0 ? " ORDER BY " : ", ")
+                    .append(column.getName())
+                    .append(column.getDirection() == Sort.Direction.Descending ? " DESC" : " ASC");
+        }
+        return orderBy.toString();
+    }
+
+    private long countInNewTransaction(CountKey key) {
+        return QuarkusTransaction.requiringNew().call(() -> count(key.where(), key.params()));
+    }
+
+    private record PageSpec(String query, Sort sort, Page page) {
+    }
+
+    /**
+     * Cache key of an approximate count: the filter without paging or seek predicate.
+     */
+    private record CountKey(String where, Map<String, Object> params) {
+    }
+
+    /**
+     * Cursor for the page after {@code page}, or null when it was the last one (or in OFFSET mode).
+     */
+    public String nextCursor(List<User> page, PaginationRequest pagination) {
+        if (!pagination.isKeyset() || page.size() < pagination.getEffectiveSize()) {
+            return null;
+        }
+        User last = page.get(page.size() - 1);
+        UserSortKey key = sortKey(pagination);
+        return new KeysetCursor(key.field, keysetAscending(pagination), last.getId(), key.format(last)).encode();
+    }
+
+    private UserSortKey sortKey(PaginationRequest pagination) {
+        if (!pagination.isKeyset() || !pagination.hasSorting()) {
+            return UserSortKey.CREATED_AT;
+        }
+        return UserSortKey.of(pagination.getSortBy());
+    }
+
+    private boolean keysetAscending(PaginationRequest pagination) {
+        return pagination.hasSorting() && pagination.isAscending();
+    }
+
+    /**
+     * Sort keys usable for keyset paging: NOT NULL columns only, so the seek predicate never has to handle nulls.
+     * Each one needs an index on (column, ID) to make the seek an index range scan.
+     */
+    private enum UserSortKey {
+        CREATED_AT("createdAt", User::getCreatedAt, LocalDateTime::parse),
+        ID("id", User::getId, Long::valueOf),
+        EMAIL("email", User::getEmail, value -> value),
+        FIRST_NAME("firstName", User::getFirstName, value -> value);
+
+        private final String field;
+        private final Function<User, Object> extractor;
+        private final Function<String, Object> parser;
+
+        UserSortKey(String field, Function<User, Object> extractor, Function<String, Object> parser) {
+            this.field = field;
+            this.extractor = extractor;
+            this.parser = parser;
+        }
+
+        static UserSortKey of(String field) {
+            for (UserSortKey key : values()) {
+                if (key.field.equals(field)) {
+                    return key;
+                }
+            }
+            throw new BusinessException("Keyset pagination supports sortBy createdAt, id, email or firstName",
+                    ResponseCode.VALIDATION_ERROR.name());
+        }
+
+        String format(User user) {
+            return String.valueOf(extractor.apply(user));
+        }
+
+        /**
+         * Seek value of a cursor; a tampered value is a client error, not a 500.
+         */
+        Object parse(String value) {
+            try {
+                return parser.apply(value);
+            } catch (DateTimeException | IllegalArgumentException e) {
+                throw new BusinessException("Invalid pagination cursor", ResponseCode.VALIDATION_ERROR.name());
+            }
+        }
+    }
+
     /**
      * Checks if email already exists (for validation during create/update).
      */
     public boolean emailExists(String email) {
-        return count("email = ?1", email) > 0;
+        if (!emailFilter.mightContain(email)) {
+            return false;
+        }
+        return emailFilter.recordLookup(count("email = ?1", email) > 0);
+    }
+
+    /**
+     * Which of {@code emails} already exist, in one query per ORACLE_IN_LIMIT emails
+     * instead of one count per email.
+     */
+    public Set<String> findExistingEmails(List<String> emails) {
+        Set<String> existing = new HashSet<>();
+        // Email yang pasti belum ada (menurut email filter) tidak perlu ikut ke query
+        emails = emails.stream().filter(emailFilter::mightContain).toList();
+        Session session = getEntityManager().unwrap(Session.class);
+        for (int from = 0; from < emails.size(); from += ORACLE_IN_LIMIT) {
+            existing.addAll(session.createSelectionQuery("SELECT u.email FROM User u WHERE u.email IN :emails", String.class)
+                    .setParameter("emails", emails.subList(from, Math.min(from + ORACLE_IN_LIMIT, emails.size())))
+                    .setReadOnly(true)
+                    .getResultList());
+        }
+        return existing;
+    }
+
+    /**
+     * Department/active/salary of the given users as read model snapshots, one query per ORACLE_IN_LIMIT ids.
+     */
+    public List<DepartmentStatsReadModel.Snapshot> findStatsSnapshots(Collection<Long> userIds) {
+        List<Long> ids = userIds.stream().filter(Objects::nonNull).distinct().toList();
+        List<DepartmentStatsReadModel.Snapshot> snapshots = new ArrayList<>(ids.size());
+        Session session = getEntityManager().unwrap(Session.class);
+        for (int from = 0; from < ids.size(); from += ORACLE_IN_LIMIT) {
+            session.createSelectionQuery("SELECT u.department, u.active, u.salary FROM User u WHERE u.id IN :ids",
+                            Object[].class)
+                    .setParameter("ids", ids.subList(from, Math.min(from + ORACLE_IN_LIMIT, ids.size())))
+                    .setReadOnly(true)
+                    .getResultList()
+                    .forEach(row -> snapshots.add(new DepartmentStatsReadModel.Snapshot(
+                            (String) row[0], Boolean.TRUE.equals(row[1]), (Double) row[2])));
+        }
+        return snapshots;
     }
 
     /**
      * Checks if email exists excluding a specific user ID (for update validation).
      */
     public boolean emailExistsExcludingUser(String email, Long userId) {
-        return count("email = ?1 AND id != ?2", email, userId) > 0;
+        if (!emailFilter.mightContain(email)) {
+            return false;
+        }
+        // Pemilik email diambil (maks. 2) supaya email milik user itu sendiri tidak dihitung sebagai false positive
+        List<Long> owners = getEntityManager()
+                .createQuery("SELECT u.id FROM User u WHERE u.email = ?1", Long.class)
+                .setParameter(1, email)
+                .setMaxResults(2)
+                .getResultList();
+        emailFilter.recordLookup(!owners.isEmpty());
+        return owners.stream().anyMatch(id -> !id.equals(userId));
     }
 
     /**
      * Gets a list of distinct departments for dropdown/filter purposes.
      */
-    @CacheResult(cacheName = "user-cache")
     public List<String> getDistinctDepartments() {
+        if (departmentStats.isReady()) {
+            return departmentStats.activeDepartments();
+        }
         return getEntityManager()
                 .createQuery("SELECT DISTINCT u.department FROM User u WHERE u.department IS NOT NULL AND u.active = true ORDER BY u.department", String.class)
                 .getResultList();
@@ -0,0 +1,326 @@
+package org.testing.transactional.repository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.TransactionCallbacks;
+import org.testing.transactional.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process trigram index over firstName, lastName and email, used by
+ * {@link UserRepository#advancedSearch} instead of {@code UPPER(col) LIKE '%term%'} full scans.
+ * <p>
+ * Every indexed user gets a dense int document number; each trigram maps to a sorted int[] posting list
+ * of documents. A search intersects the posting lists of the term's trigrams (smallest first), then
+ * verifies each candidate against the stored text, so the cost is proportional to the matches rather
+ * than to TEST_USERS. Only the resulting ids go to the database, which applies the remaining filters.
+ * <p>
+ * Updates never rewrite a posting list: the old document is tombstoned and the user is appended under
+ * a new, higher document number, which keeps every list sorted. Tombstones are compacted away
+ * once they pass compact-ratio. Writes are applied only after the surrounding transaction commits.
+ */
+@ApplicationScoped
+public class UserSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    private static final int GRAM = 3;
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @ConfigProperty(name = "user.search-index.enabled", defaultValue = "false")
+    boolean enabled;
+
+    // Dibatasi ORACLE_IN_LIMIT: id hasil index diikat ke satu "id IN :ids" (batas IN-list Oracle)
+    @ConfigProperty(name = "user.search-index.max-candidates", defaultValue = "1000")
+    int maxCandidates;
+
+    @ConfigProperty(name = "user.search-index.compact-ratio", defaultValue = "0.25")
+    double compactRatio;
+
+    @ConfigProperty(name = "user.search-index.load-fetch-size", defaultValue = "5000")
+    int loadFetchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByUserId = new HashMap<>();
+    private long[] userIds = new long[1024];
+    private String[] texts = new String[1024];
+    private final BitSet deleted = new BitSet();
+    private int documents;
+    private int tombstones;
+    private volatile boolean ready;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        QuarkusTransaction.requiringNew().run(this::load);
+        ready = true;
+        LOGGER.info("User search index loaded: {} users, {} trigrams in {} ms",
+                documents, postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of users whose firstName, lastName or email contains {@code term} (case-insensitive).
+     * Empty when the index cannot answer: disabled, term shorter than a trigram, or more than
+     * max-candidates matches (an unselective term is cheaper as a plain scan).
+     */
+    public Optional<List<Long>> search(String term) {
+        if (!ready || term == null) {
+            return Optional.empty();
+        }
+        String needle = normalize(term.trim());
+        if (needle.length() < GRAM || needle.indexOf(FIELD_SEPARATOR) >= 0) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM <= needle.length(); i++) {
+                Postings list = postings.get(gram(needle, i));
+                if (list == null) {
+                    return Optional.of(List.of());
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            int[] candidates = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = intersect(candidates, count, lists.get(i));
+            }
+
+            List<Long> matches = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int doc = candidates[i];
+                if (!deleted.get(doc) && texts[doc].contains(needle)) {
+                    if (matches.size() == Math.min(maxCandidates, UserRepository.ORACLE_IN_LIMIT)) {
+                        return Optional.empty();
+                    }
+                    matches.add(userIds[doc]);
+                }
+            }
+            return Optional.of(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * (Re)indexes a user once the current transaction commits, immediately when there is none.
+     */
+    public void indexAfterCommit(User user) {
+        if (!ready) {
+            return;
+        }
+        Long id = user.getId();
+        String text = text(user.getFirstName(), user.getLastName(), user.getEmail());
+        transactionCallbacks.afterCommit(() -> upsert(id, text));
+    }
+
+    public void removeAfterCommit(Long userId) {
+        if (!ready) {
+            return;
+        }
+        transactionCallbacks.afterCommit(() -> remove(userId));
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("enabled", ready);
+            stats.put("users", documents - tombstones);
+            stats.put("documents", documents);
+            stats.put("tombstones", tombstones);
+            stats.put("trigrams", postings.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void load() {
+        Session session = entityManager.unwrap(Session.class);
+        try (Stream<Object[]> rows = session.createSelectionQuery(
+                        "SELECT u.id, u.firstName, u.lastName, u.email FROM User u ORDER BY u.id", Object[].class)
+                .setReadOnly(true)
+                .setFetchSize(loadFetchSize)
+                .getResultStream()) {
+            lock.writeLock().lock();
+            try {
+                for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                    Object[] row = it.next();
+                    append((Long) row[0], text((String) row[1], (String) row[2], (String) row[3]));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void upsert(Long userId, String text) {
+        lock.writeLock().lock();
+        try {
+            Integer current = docByUserId.get(userId);
+            if (current != null && texts[current].equals(text)) {
+                return;
+            }
+            if (current != null) {
+                tombstone(current);
+            }
+            append(userId, text);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            Integer current = docByUserId.remove(userId);
+            if (current != null) {
+                tombstone(current);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void append(long userId, String text) {
+        int doc = documents++;
+        if (doc == userIds.length) {
+            userIds = Arrays.copyOf(userIds, doc * 2);
+            texts = Arrays.copyOf(texts, doc * 2);
+        }
+        userIds[doc] = userId;
+        texts[doc] = text;
+        docByUserId.put(userId, doc);
+
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            // Trigrams spanning two fields would let a term match across firstName/lastName/email
+            int separator = text.indexOf(FIELD_SEPARATOR, i);
+            if (separator >= 0 && separator < i + GRAM) {
+                continue;
+            }
+            postings.computeIfAbsent(gram(text, i), key -> new Postings()).add(doc);
+        }
+    }
+
+    private void tombstone(int doc) {
+        deleted.set(doc);
+        texts[doc] = null;
+        tombstones++;
+    }
+
+    /**
+     * Rebuilds all posting lists without tombstoned documents once they make up compact-ratio of the index.
+     */
+    private void compactIfNeeded() {
+        if (tombstones < 1024 || tombstones < documents * compactRatio) {
+            return;
+        }
+        long[] liveIds = new long[documents - tombstones];
+        String[] liveTexts = new String[liveIds.length];
+        int live = 0;
+        for (int doc = 0; doc < documents; doc++) {
+            if (!deleted.get(doc)) {
+                liveIds[live] = userIds[doc];
+                liveTexts[live] = texts[doc];
+                live++;
+            }
+        }
+        postings.clear();
+        docByUserId.clear();
+        deleted.clear();
+        documents = 0;
+        tombstones = 0;
+        for (int i = 0; i < live; i++) {
+            append(liveIds[i], liveTexts[i]);
+        }
+        LOGGER.info("User search index compacted to {} users", live);
+    }
+
+    /**
+     * Keeps in {@code candidates} only the documents that also appear in {@code list}; both are sorted.
+     */
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int doc = candidates[i];
+            while (j < list.size && list.docs[j] < doc) {
+                j++;
+            }
+            if (j < list.size && list.docs[j] == doc) {
+                candidates[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    private static long gram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static String text(String firstName, String lastName, String email) {
+        return normalize(firstName) + FIELD_SEPARATOR + normalize(lastName) + FIELD_SEPARATOR + normalize(email);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Growable sorted int array of document numbers; documents are only ever appended in increasing order.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        private void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
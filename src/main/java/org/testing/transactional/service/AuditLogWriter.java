@@ -0,0 +1,333 @@
+package org.testing.transactional.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static jakarta.transaction.Transactional.TxType.REQUIRES_NEW;
+
+/**
+ * Asynchronous, batched writer for USER_AUDIT_LOG.
+ * Callers only enqueue an event; a single background thread flushes the queue every
+ * flush-interval-ms (or as soon as flush-size events are waiting) with one JDBC batch and one commit,
+ * so business transactions no longer suspend, borrow a second connection and commit twice for an audit row.
+ * When the queue is full the overflow-policy decides: BLOCK the caller, DROP the event (counted)
+ * or SPILL it to a local file that is loaded back into the table on the next start.
+ */
+@ApplicationScoped
+public class AuditLogWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_AUDIT = """
+            INSERT INTO USER_AUDIT_LOG
+            (ID, USER_ID, OPERATION, OPERATED_BY, OPERATION_TIME)
+            VALUES
+            (USER_AUDIT_SEQ.NEXTVAL, ?, ?, ?, ?)
+            """;
+
+    public enum OverflowPolicy {
+        BLOCK,  // caller menunggu sampai ada ruang di queue
+        DROP,   // event dibuang, hanya dihitung
+        SPILL   // event ditulis ke file lokal
+    }
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Inject
+    TransactionalDemoService transactionalDemoService;
+
+    @ConfigProperty(name = "audit.async.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "audit.async.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "audit.async.flush-interval-ms", defaultValue = "200")
+    long flushIntervalMs;
+
+    @ConfigProperty(name = "audit.async.flush-size", defaultValue = "500")
+    int flushSize;
+
+    @ConfigProperty(name = "audit.async.overflow-policy", defaultValue = "BLOCK")
+    OverflowPolicy overflowPolicy;
+
+    @ConfigProperty(name = "audit.async.spill-file", defaultValue = "audit-spill.log")
+    String spillFile;
+
+    private BlockingQueue<AuditEvent> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        replaySpillFile();
+        running = true;
+        writer = new Thread(this::run, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        LOGGER.info("Async audit writer enabled: flush every {} ms or {} events, overflow policy {}",
+                flushIntervalMs, flushSize, overflowPolicy);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever is still queued is flushed on the shutdown thread
+        List<AuditEvent> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        for (int from = 0; from < leftovers.size(); from += flushSize) {
+            flush(leftovers.subList(from, Math.min(from + flushSize, leftovers.size())));
+        }
+    }
+
+    /**
+     * Records an audit event without waiting for the database.
+     * Falls back to the synchronous REQUIRES_NEW insert when the async writer is disabled.
+     */
+    public void record(String operation, Long userId, String operatedBy) {
+        if (writer == null) {
+            transactionalDemoService.auditUserOperation(operation, userId, operatedBy);
+            return;
+        }
+
+        AuditEvent event = new AuditEvent(userId, operation, operatedBy, LocalDateTime.now());
+        enqueued.increment();
+        if (queue.offer(event)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                blocked.increment();
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    spill(List.of(event));
+                }
+            }
+            case DROP -> {
+                dropped.increment();
+                LOGGER.warn("Audit queue full, dropped {} for user {}", operation, userId);
+            }
+            case SPILL -> spill(List.of(event));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", writer != null);
+        stats.put("overflowPolicy", overflowPolicy.name());
+        stats.put("queueDepth", queue == null ? 0 : queue.size());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("batches", batchCount);
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("blocked", blocked.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("spilled", spilled.sum());
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) written.sum() / batchCount);
+        stats.put("avgFlushMs", batchCount == 0 ? 0.0 : flushNanos.sum() / 1_000_000.0 / batchCount);
+        stats.put("maxFlushMs", maxFlushNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(flushSize);
+        while (running) {
+            try {
+                AuditEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < flushSize) {
+                    long remaining = deadline - System.nanoTime();
+                    AuditEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, flushSize - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requeue(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Puts a batch taken by the interrupted writer back for the shutdown flush; what no longer fits
+     * (callers kept enqueueing) goes to the spill file, since these events were already accepted.
+     */
+    private void requeue(List<AuditEvent> batch) {
+        List<AuditEvent> overflow = new ArrayList<>();
+        for (AuditEvent event : batch) {
+            if (!queue.offer(event)) {
+                overflow.add(event);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            spill(overflow);
+        }
+    }
+
+    /**
+     * Writes a batch; if the database is unavailable the batch goes to the spill file instead of being lost.
+     */
+    private void flush(List<AuditEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            insertBatch(batch);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            LOGGER.error("Failed to write {} audit records, spilling to {}", batch.size(), spillFile, e);
+            spill(batch);
+            return;
+        }
+        long latency = System.nanoTime() - start;
+        batches.increment();
+        written.add(batch.size());
+        flushNanos.add(latency);
+        maxFlushNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    @Transactional(REQUIRES_NEW)
+    void insertBatch(List<AuditEvent> batch) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_AUDIT)) {
+                for (AuditEvent event : batch) {
+                    if (event.userId() == null) {
+                        ps.setNull(1, Types.NUMERIC);
+                    } else {
+                        ps.setLong(1, event.userId());
+                    }
+                    ps.setString(2, event.operation());
+                    ps.setString(3, event.operatedBy());
+                    ps.setTimestamp(4, Timestamp.valueOf(event.operationTime()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    private synchronized void spill(List<AuditEvent> events) {
+        try (BufferedWriter out = Files.newBufferedWriter(Path.of(spillFile), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (AuditEvent event : events) {
+                out.write(event.toLine());
+                out.newLine();
+            }
+            spilled.add(events.size());
+        } catch (IOException e) {
+            dropped.add(events.size());
+            LOGGER.error("Failed to spill {} audit records to {}", events.size(), spillFile, e);
+        }
+    }
+
+    /**
+     * Loads events spilled by a previous run back into USER_AUDIT_LOG before the writer starts.
+     */
+    private void replaySpillFile() {
+        Path path = Path.of(spillFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        Path replaying = path.resolveSibling(path.getFileName() + ".replaying");
+        try {
+            Files.move(path, replaying, StandardCopyOption.REPLACE_EXISTING);
+            List<AuditEvent> events = Files.readAllLines(replaying, StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isBlank())
+                    .map(AuditEvent::fromLine)
+                    .toList();
+            for (int from = 0; from < events.size(); from += flushSize) {
+                flush(events.subList(from, Math.min(from + flushSize, events.size())));
+            }
+            Files.delete(replaying);
+            LOGGER.info("Replayed {} spilled audit records from {}", events.size(), spillFile);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to replay spilled audit records from {}", replaying, e);
+        }
+    }
+
+    record AuditEvent(Long userId, String operation, String operatedBy, LocalDateTime operationTime) {
+
+        String toLine() {
+            return operationTime + "\t" + operation + "\t" + (userId == null ? "" : userId) + "\t"
+                    + (operatedBy == null ? "" : operatedBy);
+        }
+
+        static AuditEvent fromLine(String line) {
+            String[] fields = line.split("\t", -1);
+            return new AuditEvent(
+                    fields[2].isEmpty() ? null : Long.valueOf(fields[2]),
+                    fields[1],
+                    fields[3].isEmpty() ? null : fields[3],
+                    LocalDateTime.parse(fields[0]));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.testing.transactional.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.PostingResultDTO;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.exeption.BusinessException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Applies bursts of mixed TOPUP / PURCHASE / DIRECT_TOP operations.
+ * Operations are ordered by cardNo (stable, so per-card arrival order is kept) and cut into
+ * chunks; every chunk is one {@link TransactionService#postBatch(List)} transaction, so HTTP and
+ * commit overhead is paid per chunk instead of per item.
+ */
+@ApplicationScoped
+public class BatchPostingService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchPostingService.class);
+
+    private static final Comparator<TransactionDTO> BY_CARD_NO =
+            Comparator.comparing(TransactionDTO::getCardNo, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Inject
+    TransactionService transactionService;
+
+    @ConfigProperty(name = "transaction.batch.chunk-size", defaultValue = "500")
+    int chunkSize;
+
+    @ConfigProperty(name = "transaction.batch.max-items", defaultValue = "10000")
+    int maxItems;
+
+    /**
+     * Posts a fully received batch. Results are returned in input order.
+     */
+    public List<PostingResultDTO> postAll(List<TransactionDTO> operations) {
+        if (operations.size() > maxItems) {
+            throw new BusinessException("Batch exceeds the maximum of " + maxItems + " operations", "VALIDATION_ERROR");
+        }
+
+        List<Integer> order = IntStream.range(0, operations.size()).boxed()
+                .sorted(Comparator.comparing(operations::get, BY_CARD_NO))
+                .toList();
+
+        PostingResultDTO[] results = new PostingResultDTO[operations.size()];
+        for (int from = 0; from < order.size(); from += chunkSize) {
+            List<Integer> chunk = order.subList(from, Math.min(from + chunkSize, order.size()));
+            postChunk(chunk, chunk.stream().map(operations::get).toList(), results);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Posts a streamed (NDJSON) batch chunk by chunk, so only one chunk is held in memory.
+     * Ordering by cardNo happens inside each chunk.
+     * <p>
+     * Chunks that were already posted stay committed, so the stream never fails as a whole: reading
+     * stops at the first unreadable line or at the operation past {@code max-items}, and that index gets
+     * a failure telling the client it and everything after it were not processed.
+     */
+    public List<PostingResultDTO> postStream(Iterator<TransactionDTO> operations) {
+        List<PostingResultDTO> results = new ArrayList<>();
+        List<TransactionDTO> buffer = new ArrayList<>(chunkSize);
+        int offset = 0;
+
+        while (true) {
+            TransactionDTO next;
+            try {
+                if (!operations.hasNext()) {
+                    break;
+                }
+                next = operations.next();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unreadable operation at index {} in batch stream: {}", offset + buffer.size(), e.getMessage());
+                results.addAll(postBufferedChunk(buffer, offset));
+                results.add(PostingResultDTO.notProcessed(offset + buffer.size(),
+                        "Malformed operation, this and later operations were not processed"));
+                return results;
+            }
+
+            if (offset + buffer.size() == maxItems) {
+                results.addAll(postBufferedChunk(buffer, offset));
+                results.add(PostingResultDTO.notProcessed(maxItems, "Batch exceeds the maximum of " + maxItems
+                        + " operations, this and later operations were not processed"));
+                return results;
+            }
+
+            buffer.add(next);
+            if (buffer.size() == chunkSize) {
+                results.addAll(postBufferedChunk(buffer, offset));
+                offset += buffer.size();
+                buffer.clear();
+            }
+        }
+        results.addAll(postBufferedChunk(buffer, offset));
+        return results;
+    }
+
+    private List<PostingResultDTO> postBufferedChunk(List<TransactionDTO> buffer, int offset) {
+        if (buffer.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> order = IntStream.range(0, buffer.size()).boxed()
+                .sorted(Comparator.comparing(buffer::get, BY_CARD_NO))
+                .toList();
+        PostingResultDTO[] results = new PostingResultDTO[buffer.size()];
+        postChunk(order, order.stream().map(buffer::get).toList(), results);
+        for (PostingResultDTO result : results) {
+            result.setIndex(result.getIndex() + offset);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Posts one chunk in a single transaction; {@code positions.get(i)} is the slot in
+     * {@code results} for {@code sortedOps.get(i)}.
+     */
+    private void postChunk(List<Integer> positions, List<TransactionDTO> sortedOps, PostingResultDTO[] results) {
+        List<PostingResultDTO> chunkResults;
+        try {
+            chunkResults = transactionService.postBatch(sortedOps);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Batch chunk of {} operations rolled back, posting one by one: {}", sortedOps.size(), e.getMessage());
+            chunkResults = postOneByOne(sortedOps);
+        }
+
+        for (int i = 0; i < sortedOps.size(); i++) {
+            PostingResultDTO result = chunkResults.get(i);
+            result.setIndex(positions.get(i));
+            results[positions.get(i)] = result;
+        }
+    }
+
+    private List<PostingResultDTO> postOneByOne(List<TransactionDTO> operations) {
+        List<PostingResultDTO> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            TransactionDTO dto = operations.get(i);
+            try {
+                results.add(PostingResultDTO.success(i, transactionService.postInNewTransaction(dto)));
+            } catch (BusinessException e) {
+                results.add(PostingResultDTO.failure(i, dto, e));
+            } catch (RuntimeException e) {
+                LOGGER.error("Posting {} for card {} failed", i, dto.getCardNo(), e);
+                results.add(PostingResultDTO.failure(i, dto, ResponseCode.DATABASE_ERROR,
+                        ResponseCode.DATABASE_ERROR.name(), "Posting failed, please retry"));
+            }
+        }
+        return results;
+    }
+}
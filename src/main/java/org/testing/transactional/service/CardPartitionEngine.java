@@ -0,0 +1,232 @@
+package org.testing.transactional.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.PostingResultDTO;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-writer execution engine for balance mutations.
+ * cardNo is hashed to one of a fixed set of partitions, each drained by exactly one thread,
+ * so all postings for a card run in arrival order and never wait on each other's row locks.
+ * A partition commits whatever is queued (up to max-group-size) in one database transaction.
+ */
+@ApplicationScoped
+public class CardPartitionEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CardPartitionEngine.class);
+
+    @Inject
+    TransactionService transactionService;
+
+    @ConfigProperty(name = "transaction.partition.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction.partition.count", defaultValue = "8")
+    int partitionCount;
+
+    @ConfigProperty(name = "transaction.partition.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "transaction.partition.max-group-size", defaultValue = "32")
+    int maxGroupSize;
+
+    @ConfigProperty(name = "transaction.partition.timeout-ms", defaultValue = "5000")
+    long timeoutMs;
+
+    private Partition[] partitions;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i);
+            partitions[i].start();
+        }
+        LOGGER.info("Card partition engine started with {} partitions", partitionCount);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (partitions == null) {
+            return;
+        }
+        for (Partition partition : partitions) {
+            partition.stop();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && partitions != null;
+    }
+
+    /**
+     * Queues a posting on the card's partition and waits for its outcome.
+     * Business rejections are rethrown exactly as the direct service call would throw them.
+     * SERVICE_UNAVAILABLE means the posting was not and will not be executed.
+     */
+    public TransactionDTO submit(Transaction.TRX_TYPE_ENUM type, TransactionDTO dto) throws BusinessException {
+        dto.setTransactionType(type.name());
+        Partition partition = partitionFor(dto.getCardNo());
+        PendingPosting pending = new PendingPosting(dto);
+
+        if (!partition.queue.offer(pending)) {
+            partition.rejected.increment();
+            throw new BusinessException("Card partition " + partition.index + " is full, please retry",
+                    ResponseCode.SERVICE_UNAVAILABLE.name());
+        }
+
+        return pending.await(timeoutMs, "card partition " + partition.index);
+    }
+
+    /**
+     * Queue depth and latency per partition.
+     */
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        if (partitions == null) {
+            return stats;
+        }
+        for (Partition partition : partitions) {
+            long processed = partition.processed.sum();
+            long groups = partition.groups.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("partition", partition.index);
+            entry.put("queueDepth", partition.queue.size());
+            entry.put("processed", processed);
+            entry.put("groups", groups);
+            entry.put("rejected", partition.rejected.sum());
+            entry.put("cancelled", partition.cancelled.sum());
+            entry.put("avgGroupSize", groups == 0 ? 0.0 : (double) processed / groups);
+            entry.put("avgLatencyMs", processed == 0 ? 0.0 : partition.latencyNanos.sum() / 1_000_000.0 / processed);
+            entry.put("maxLatencyMs", partition.maxLatencyNanos.get() / 1_000_000.0);
+            stats.add(entry);
+        }
+        return stats;
+    }
+
+    private Partition partitionFor(String cardNo) {
+        int hash = cardNo == null ? 0 : cardNo.hashCode();
+        return partitions[Math.floorMod(hash, partitions.length)];
+    }
+
+    private final class Partition implements Runnable {
+        private final int index;
+        private final BlockingQueue<PendingPosting> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder groups = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private Thread thread;
+        private volatile boolean running = true;
+
+        private Partition(int index) {
+            this.index = index;
+        }
+
+        private void start() {
+            thread = new Thread(this, "card-partition-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void stop() {
+            running = false;
+            thread.interrupt();
+            List<PendingPosting> leftovers = new ArrayList<>();
+            queue.drainTo(leftovers);
+            for (PendingPosting pending : leftovers) {
+                pending.fail(new BusinessException("Application is shutting down",
+                        ResponseCode.SERVICE_UNAVAILABLE.name()));
+            }
+        }
+
+        @Override
+        public void run() {
+            List<PendingPosting> group = new ArrayList<>(maxGroupSize);
+            while (running) {
+                try {
+                    group.add(queue.take());
+                    queue.drainTo(group, maxGroupSize - 1);
+                    execute(group);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    LOGGER.error("Card partition {} failed to execute a group", index, e);
+                    group.forEach(pending -> pending.fail(e));
+                } finally {
+                    group.clear();
+                }
+            }
+        }
+
+        private void execute(List<PendingPosting> group) {
+            // Posting yang pemanggilnya sudah timeout tidak boleh dieksekusi lagi
+            int queued = group.size();
+            group.removeIf(pending -> !pending.start());
+            cancelled.add(queued - group.size());
+            if (group.isEmpty()) {
+                return;
+            }
+            List<TransactionDTO> requests = group.stream().map(pending -> pending.request).toList();
+            List<PostingResultDTO> results;
+            try {
+                results = transactionService.postGroup(requests);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Group of {} postings on partition {} rolled back, retrying one by one: {}",
+                        group.size(), index, e.getMessage());
+                executeOneByOne(group);
+                groups.increment();
+                return;
+            }
+
+            for (int i = 0; i < group.size(); i++) {
+                record(group.get(i));
+                group.get(i).complete(results.get(i));
+            }
+            groups.increment();
+        }
+
+        private void executeOneByOne(List<PendingPosting> group) {
+            for (PendingPosting pending : group) {
+                try {
+                    TransactionDTO result = transactionService.postInNewTransaction(pending.request);
+                    record(pending);
+                    pending.complete(result);
+                } catch (RuntimeException e) {
+                    record(pending);
+                    pending.fail(e);
+                }
+            }
+        }
+
+        private void record(PendingPosting pending) {
+            long latency = System.nanoTime() - pending.enqueuedAt;
+            processed.increment();
+            latencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.slf4j.LoggerFactory;
 import org.testing.transactional.common.ErrorConstants;
 import org.testing.transactional.dto.CardDTO;
 import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.exeption.ResourceNotFoundException;
 import org.testing.transactional.mapper.CardMapper;
 import org.testing.transactional.model.Card;
 import org.testing.transactional.model.User;
@@ -17,6 +18,7 @@ import org.testing.transactional.utils.Generator;
 import org.testing.transactional.utils.Validation;
 
 import java.sql.SQLException;
+import java.util.List;
 
 import static jakarta.transaction.Transactional.TxType.REQUIRED;
 
@@ -35,7 +37,21 @@ public class CardService {
     UserRepository userRepository;
 
     @Inject
-    TransactionalDemoService transactionalDemoService;
+    AuditLogWriter auditLogWriter;
+
+    @Inject
+    OutboxService outboxService;
+
+    @Inject
+    EntityCaches entityCaches;
+
+    /**
+     * Card by number from the {@code cards} cache (DTO snapshot, balance included).
+     */
+    public CardDTO getCard(String cardNo) {
+        return entityCaches.card(cardNo)
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found: " + cardNo));
+    }
 
     /**
      * Creates a new Card with REQUIRED propagation (default).
@@ -68,6 +84,7 @@ public class CardService {
 
             cardRepository.persist(card);
             cardRepository.flush();
+            entityCaches.invalidateCards(List.of(card.getCardNo()));
 
             if ("error".equalsIgnoreCase(cardDTO.getCardNo())) {
                 throw new BusinessException("Simulasi kegagalan database");
@@ -84,9 +101,13 @@ public class CardService {
             LOGGER.error("❌ Failed to create card: {}", e.getMessage(), e);
             throw e;
         } finally {
-            String status = success ? "CREATE_SUCCESS" : "CREATE_FAILED";
+            // Sukses: audit lewat outbox (jika relay aktif); gagal: transaksi rollback, audit lewat writer async
             Long cardId = (createdCard != null) ? createdCard.getId() : null;
-            transactionalDemoService.auditUserOperation(status, cardId, "system");
+            if (success) {
+                outboxService.append(OutboxService.AGGREGATE_CARD, cardId, "CREATE_SUCCESS", "system");
+            } else {
+                auditLogWriter.record("CREATE_FAILED", cardId, "system");
+            }
         }
     }
 
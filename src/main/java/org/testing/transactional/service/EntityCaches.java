@@ -0,0 +1,174 @@
+package org.testing.transactional.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.Config;
+import org.testing.transactional.common.TransactionCallbacks;
+import org.testing.transactional.dto.CardDTO;
+import org.testing.transactional.dto.UserDTO;
+import org.testing.transactional.mapper.CardMapper;
+import org.testing.transactional.mapper.UserMapper;
+import org.testing.transactional.repository.CardRepository;
+import org.testing.transactional.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Named read-through caches of detached DTO snapshots, one per entity/lookup, replacing the single
+ * shared {@code user-cache} that held managed entities, counts and lists in one keyspace:
+ * <ul>
+ *   <li>{@code users} - user id to UserDTO</li>
+ *   <li>{@code user-emails} - email to user id (resolved through {@code users})</li>
+ *   <li>{@code cards} - card number to CardDTO</li>
+ * </ul>
+ * Each cache has its own {@code entity-cache.<name>.max-size}, {@code .ttl} and {@code .refresh}
+ * (refresh-after-write reloads in the background while the old value is still served).
+ * Misses are cached too, so creates invalidate as well. Mutating service methods invalidate
+ * immediately and again after commit, so a reader can't re-cache the pre-commit row in between.
+ * <p>
+ * Query results of the old {@code user-cache} (active user counts, counts per department, the
+ * department list) have no cache here: {@link org.testing.transactional.repository.DepartmentStatsReadModel}
+ * serves them from memory and applies every committed user change, which a TTL cache could only
+ * approximate. Only with user.department-stats.enabled=false do they go to the database each time.
+ * Cards by account number are not cached either: no read path looks them up, cards are read by card number.
+ */
+@ApplicationScoped
+public class EntityCaches {
+
+    public static final String USERS = "users";
+    public static final String USER_EMAILS = "user-emails";
+    public static final String CARDS = "cards";
+
+    @Inject
+    Config config;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    CardRepository cardRepository;
+
+    @Inject
+    UserMapper userMapper;
+
+    @Inject
+    CardMapper cardMapper;
+
+    private LoadingCache<Long, Optional<UserDTO>> users;
+    private LoadingCache<String, Optional<Long>> userIdsByEmail;
+    private LoadingCache<String, Optional<CardDTO>> cards;
+    private final Map<String, LoadingCache<?, ?>> caches = new LinkedHashMap<>();
+
+    @PostConstruct
+    void init() {
+        users = build(USERS, 10_000, Duration.ofMinutes(10), Duration.ofMinutes(1),
+                id -> inNewTransaction(() -> userRepository.findByIdOptional(id).map(userMapper::toDTO)));
+        userIdsByEmail = build(USER_EMAILS, 10_000, Duration.ofMinutes(10), Duration.ofMinutes(1),
+                email -> inNewTransaction(() -> userRepository.findByEmail(email).map(user -> user.getId())));
+        cards = build(CARDS, 50_000, Duration.ofMinutes(5), Duration.ofSeconds(30),
+                cardNo -> inNewTransaction(() -> cardRepository.findByCardNo(cardNo).map(card -> {
+                    CardDTO dto = cardMapper.toDTO(card);
+                    // Id dari proxy Card.user, tanpa query ke TEST_USERS
+                    dto.setUserId(card.getUser() == null ? null : card.getUser().getId());
+                    return dto;
+                })));
+    }
+
+    public Optional<UserDTO> user(Long id) {
+        return users.get(id);
+    }
+
+    public Optional<UserDTO> userByEmail(String email) {
+        // A stale mapping (email changed in the meantime) resolves to a user with another email
+        return userIdsByEmail.get(email).flatMap(this::user).filter(dto -> email.equals(dto.getEmail()));
+    }
+
+    public Optional<CardDTO> card(String cardNo) {
+        return cards.get(cardNo);
+    }
+
+    /**
+     * Drops the cached user and its email mapping; {@code email} is the current one, the previous
+     * email (if the user was cached) is taken from the cached DTO.
+     */
+    public void invalidateUser(Long id, String email) {
+        Runnable invalidate = () -> {
+            if (id != null) {
+                Optional<UserDTO> cached = users.getIfPresent(id);
+                if (cached != null) {
+                    cached.map(UserDTO::getEmail).ifPresent(userIdsByEmail::invalidate);
+                }
+                users.invalidate(id);
+            }
+            if (email != null) {
+                userIdsByEmail.invalidate(email);
+            }
+        };
+        invalidate.run();
+        transactionCallbacks.afterCompletion(invalidate);
+    }
+
+    public void invalidateUsers(Collection<Long> ids) {
+        for (Long id : ids) {
+            invalidateUser(id, null);
+        }
+    }
+
+    public void invalidateCards(Collection<String> cardNos) {
+        List<String> keys = cardNos.stream().filter(cardNo -> cardNo != null).toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+        cards.invalidateAll(keys);
+        transactionCallbacks.afterCompletion(() -> cards.invalidateAll(keys));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats cacheStats = cache.stats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("size", cache.estimatedSize());
+            entry.put("hits", cacheStats.hitCount());
+            entry.put("misses", cacheStats.missCount());
+            entry.put("hitRate", cacheStats.hitRate());
+            entry.put("evictions", cacheStats.evictionCount());
+            entry.put("loadFailures", cacheStats.loadFailureCount());
+            entry.put("avgLoadMs", cacheStats.averageLoadPenalty() / 1_000_000.0);
+            stats.put(name, entry);
+        });
+        return stats;
+    }
+
+    private <K, V> LoadingCache<K, V> build(String name, long defaultMaxSize, Duration defaultTtl,
+                                            Duration defaultRefresh, CacheLoader<K, V> loader) {
+        String prefix = "entity-cache." + name + ".";
+        LoadingCache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(config.getOptionalValue(prefix + "max-size", Long.class).orElse(defaultMaxSize))
+                .expireAfterWrite(config.getOptionalValue(prefix + "ttl", Duration.class).orElse(defaultTtl))
+                .refreshAfterWrite(config.getOptionalValue(prefix + "refresh", Duration.class).orElse(defaultRefresh))
+                .recordStats()
+                .build(loader);
+        caches.put(name, cache);
+        return cache;
+    }
+
+    private static <V> V inNewTransaction(Callable<V> load) {
+        return QuarkusTransaction.requiringNew().call(load);
+    }
+}
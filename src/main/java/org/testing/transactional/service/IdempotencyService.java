@@ -0,0 +1,251 @@
+package org.testing.transactional.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.model.IdempotencyKey;
+import org.testing.transactional.repository.IdempotencyKeyRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static jakarta.transaction.Transactional.TxType.REQUIRES_NEW;
+
+/**
+ * Idempotency-Key handling for the posting endpoints.
+ * Two tiers: a Caffeine cache answers retries that land on the same node without touching the
+ * database, TEST_IDEMPOTENCY_KEY (key as primary key) makes the reservation unique across nodes.
+ * A duplicate gets the stored response back; TEST_CARD and TEST_TRANSACTION are not touched.
+ */
+@ApplicationScoped
+public class IdempotencyService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Inject
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "transaction.idempotency.retention", defaultValue = "24h")
+    Duration retention;
+
+    @ConfigProperty(name = "transaction.idempotency.cache-max-entries", defaultValue = "100000")
+    long cacheMaxEntries;
+
+    private Cache<String, StoredOutcome> cache;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder databaseHits = new LongAdder();
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder expiredDeleted = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * Runs {@code posting} at most once per key. Without a key the posting simply runs.
+     */
+    public Response execute(String key, String endpoint, Object request, Supplier<Response> posting) {
+        if (key == null || key.isBlank()) {
+            return posting.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters",
+                    ResponseCode.VALIDATION_ERROR.name());
+        }
+
+        String requestHash = fingerprint(endpoint, request);
+
+        StoredOutcome cached = cache.getIfPresent(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return replay(key, cached, requestHash);
+        }
+
+        Optional<StoredOutcome> stored = findStored(key);
+        if (stored.isPresent()) {
+            databaseHits.increment();
+            cache.put(key, stored.get());
+            return replay(key, stored.get(), requestHash);
+        }
+
+        if (!reserveQuietly(key, endpoint, requestHash)) {
+            // Another node reserved the key between our lookup and insert
+            StoredOutcome winner = findStored(key).orElse(StoredOutcome.inProgress(requestHash));
+            return replay(key, winner, requestHash);
+        }
+        reservations.increment();
+        cache.put(key, StoredOutcome.inProgress(requestHash));
+
+        Response response;
+        try {
+            response = posting.get();
+        } catch (RuntimeException e) {
+            // Also on SERVICE_UNAVAILABLE: a posting that timed out in a queue is cancelled, never run later
+            forget(key);
+            throw e;
+        }
+
+        String body = serialize(response.getEntity());
+        complete(key, response.getStatus(), body);
+        cache.put(key, StoredOutcome.completed(requestHash, response.getStatus(), body));
+        return response;
+    }
+
+    @Transactional(REQUIRES_NEW)
+    boolean reserve(String key, String endpoint, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyKeyRepository.deleteExpired(key, now);
+        idempotencyKeyRepository.persist(new IdempotencyKey(key, endpoint, requestHash, now, now.plus(retention)));
+        idempotencyKeyRepository.flush();
+        return true;
+    }
+
+    @Transactional(REQUIRES_NEW)
+    void complete(String key, int httpStatus, String body) {
+        idempotencyKeyRepository.complete(key, httpStatus, body);
+    }
+
+    @Transactional(REQUIRES_NEW)
+    void release(String key) {
+        idempotencyKeyRepository.deleteById(key);
+    }
+
+    @Transactional
+    Optional<StoredOutcome> findStored(String key) {
+        return idempotencyKeyRepository.findLive(key, LocalDateTime.now())
+                .map(row -> row.isCompleted()
+                        ? StoredOutcome.completed(row.getRequestHash(), row.getHttpStatus(), row.getResponseBody())
+                        : StoredOutcome.inProgress(row.getRequestHash()));
+    }
+
+    /**
+     * Expired keys are removed with one bulk DELETE per run instead of row by row.
+     */
+    @Scheduled(every = "${transaction.idempotency.cleanup-interval:15m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void purgeExpired() {
+        long deleted = idempotencyKeyRepository.deleteAllExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            expiredDeleted.add(deleted);
+            LOGGER.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cachedKeys", cache.estimatedSize());
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("databaseHits", databaseHits.sum());
+        stats.put("reservations", reservations.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("expiredDeleted", expiredDeleted.sum());
+        return stats;
+    }
+
+    private boolean reserveQuietly(String key, String endpoint, String requestHash) {
+        try {
+            return reserve(key, endpoint, requestHash);
+        } catch (PersistenceException e) {
+            LOGGER.debug("Idempotency key {} already reserved: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private void forget(String key) {
+        cache.invalidate(key);
+        release(key);
+    }
+
+    private Response replay(String key, StoredOutcome outcome, String requestHash) {
+        if (!outcome.requestHash.equals(requestHash)) {
+            conflicts.increment();
+            throw new BusinessException(HEADER + " " + key + " was already used for a different request",
+                    ResponseCode.CONFLICT.name());
+        }
+        if (!outcome.isCompleted()) {
+            conflicts.increment();
+            throw new BusinessException("Request with " + HEADER + " " + key + " is still being processed",
+                    ResponseCode.CONFLICT.name());
+        }
+        LOGGER.info("Replaying stored response for {} {}", HEADER, key);
+        return Response.status(outcome.httpStatus)
+                .entity(outcome.body)
+                .type(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .build();
+    }
+
+    private String fingerprint(String endpoint, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private String serialize(Object entity) {
+        try {
+            return objectMapper.writeValueAsString(entity);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for idempotent replay", e);
+        }
+    }
+
+    /**
+     * Cached view of a TEST_IDEMPOTENCY_KEY row; httpStatus is null while the request is in progress.
+     */
+    record StoredOutcome(String requestHash, Integer httpStatus, String body) {
+
+        static StoredOutcome inProgress(String requestHash) {
+            return new StoredOutcome(requestHash, null, null);
+        }
+
+        static StoredOutcome completed(String requestHash, int httpStatus, String body) {
+            return new StoredOutcome(requestHash, httpStatus, body);
+        }
+
+        boolean isCompleted() {
+            return httpStatus != null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.testing.transactional.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.dto.OutboxMessage;
+import org.testing.transactional.repository.OutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static jakarta.transaction.Transactional.TxType.REQUIRES_NEW;
+
+/**
+ * Drains TEST_OUTBOX in id order. Each batch is one transaction: lock the OUTBOX_RELAY_LEASE row
+ * (SKIP LOCKED, so on other nodes the run simply ends), read the oldest rows, copy them into
+ * USER_AUDIT_LOG, fire them to in-process subscribers, delete them and move the cursor on the lease row.
+ * An event is deleted only in the transaction that audited and delivered it, so it is relayed exactly
+ * once; a failure (including a throwing subscriber) rolls the batch back and it is retried as a whole.
+ * <p>
+ * OUTBOX_SEQ hands out ids one at a time, so a missing id right after the cursor belongs to a transaction
+ * that has not committed yet (or rolled back). The batch stops there until the gap is older than
+ * outbox.relay.gap-timeout; only an event whose transaction stays open longer than that is relayed
+ * after higher ids.
+ * <p>
+ * Subscribers observing {@code OutboxMessage} run inside the batch transaction and share its outcome;
+ * use {@code @Observes(during = TransactionPhase.AFTER_SUCCESS)} to see committed batches only.
+ * <p>
+ * Off by default: then {@link OutboxService} audits directly and nothing is written to TEST_OUTBOX.
+ * db/outbox.sql must be applied before outbox.relay.enabled=true, which is checked at startup.
+ */
+@ApplicationScoped
+public class OutboxRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @Inject
+    Event<OutboxMessage> subscribers;
+
+    @ConfigProperty(name = "outbox.relay.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "outbox.relay.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "outbox.relay.max-batches-per-run", defaultValue = "20")
+    int maxBatchesPerRun;
+
+    @ConfigProperty(name = "outbox.relay.gap-timeout", defaultValue = "5s")
+    Duration gapTimeout;
+
+    private final LongAdder relayed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder gapWaits = new LongAdder();
+    private final LongAdder batchLatencyNanos = new LongAdder();
+    private final AtomicLong maxBatchLatencyNanos = new AtomicLong();
+    private volatile long lastRelayedId;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        boolean ready;
+        try {
+            ready = QuarkusTransaction.requiringNew().call(outboxRepository::relayLeaseExists);
+        } catch (RuntimeException e) {
+            ready = false;
+        }
+        if (!ready) {
+            throw new IllegalStateException("outbox.relay.enabled=true but OUTBOX_RELAY_LEASE is missing, apply db/outbox.sql");
+        }
+        LOGGER.info("Outbox relay enabled with batch size {}", batchSize);
+    }
+
+    @Scheduled(every = "${outbox.relay.interval:1s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void relayPending() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            long start = System.nanoTime();
+            List<OutboxMessage> messages;
+            try {
+                messages = relayBatch();
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                LOGGER.error("Outbox relay batch failed, it will be retried on the next run", e);
+                return;
+            }
+            if (messages.isEmpty()) {
+                return;
+            }
+            long latency = System.nanoTime() - start;
+            batches.increment();
+            relayed.add(messages.size());
+            batchLatencyNanos.add(latency);
+            maxBatchLatencyNanos.accumulateAndGet(latency, Math::max);
+            if (messages.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Relays one batch in its own transaction; empty when there is nothing to relay, the next id is
+     * still in flight or another node holds the lease. Returns after commit.
+     */
+    @Transactional(REQUIRES_NEW)
+    List<OutboxMessage> relayBatch() {
+        Long lastId = outboxRepository.acquireRelayLease();
+        if (lastId == null) {
+            return List.of();
+        }
+        LocalDateTime gapCutoff = LocalDateTime.now().minus(gapTimeout);
+        List<OutboxMessage> messages = new ArrayList<>();
+        long cursor = lastId;
+        for (OutboxMessage message : outboxRepository.findOldest(batchSize)) {
+            // Id di bawah cursor: transaksi yang commit terlambat, tetap dikirim (sekali)
+            if (message.id() > cursor + 1 && message.createdAt().isAfter(gapCutoff)) {
+                gapWaits.increment();
+                break;
+            }
+            messages.add(message);
+            cursor = Math.max(cursor, message.id());
+        }
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        outboxRepository.insertAuditRows(messages);
+        for (OutboxMessage message : messages) {
+            subscribers.fire(message);
+        }
+        outboxRepository.deleteRelayed(messages);
+        outboxRepository.updateLastRelayedId(cursor);
+        lastRelayedId = cursor;
+        return messages;
+    }
+
+    public Map<String, Object> stats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("relayed", relayed.sum());
+        stats.put("batches", batchCount);
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("gapWaits", gapWaits.sum());
+        stats.put("lastRelayedId", lastRelayedId);
+        stats.put("avgBatchLatencyMs", batchCount == 0 ? 0.0 : batchLatencyNanos.sum() / 1_000_000.0 / batchCount);
+        stats.put("maxBatchLatencyMs", maxBatchLatencyNanos.get() / 1_000_000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,49 @@
+package org.testing.transactional.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.testing.transactional.model.OutboxEvent;
+import org.testing.transactional.repository.OutboxRepository;
+
+import static jakarta.transaction.Transactional.TxType.MANDATORY;
+
+/**
+ * Writes audit and domain events into TEST_OUTBOX as part of the caller's transaction.
+ * Unlike {@link TransactionalDemoService#auditUserOperation} there is no second transaction or
+ * connection, and the event commits or rolls back together with the business change.
+ * {@link OutboxRelay} delivers the events afterwards.
+ * <p>
+ * Only while the relay is enabled: otherwise nothing would ever drain TEST_OUTBOX, so the event is
+ * audited through {@link AuditLogWriter} as before and the outbox table is not needed.
+ */
+@ApplicationScoped
+public class OutboxService {
+
+    public static final String AGGREGATE_USER = "USER";
+    public static final String AGGREGATE_CARD = "CARD";
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @Inject
+    AuditLogWriter auditLogWriter;
+
+    @ConfigProperty(name = "outbox.relay.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @Transactional(MANDATORY)
+    public void append(String aggregateType, Long aggregateId, String eventType, String operatedBy) {
+        append(aggregateType, aggregateId, eventType, operatedBy, null);
+    }
+
+    @Transactional(MANDATORY)
+    public void append(String aggregateType, Long aggregateId, String eventType, String operatedBy, String payload) {
+        if (!enabled) {
+            auditLogWriter.record(eventType, aggregateId, operatedBy);
+            return;
+        }
+        outboxRepository.persist(new OutboxEvent(aggregateType, aggregateId, eventType, operatedBy, payload));
+    }
+}
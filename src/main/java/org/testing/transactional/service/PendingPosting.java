@@ -0,0 +1,83 @@
+package org.testing.transactional.service;
+
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.PostingResultDTO;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.exeption.BusinessException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A posting handed to a background executor, together with the future its HTTP caller waits on.
+ * The executor must {@link #start()} a posting before running it; a caller that times out first
+ * cancels it instead, so a posting answered with SERVICE_UNAVAILABLE is never executed later.
+ */
+final class PendingPosting {
+
+    private enum State { QUEUED, STARTED, CANCELLED }
+
+    final TransactionDTO request;
+    final long enqueuedAt = System.nanoTime();
+    private final CompletableFuture<TransactionDTO> future = new CompletableFuture<>();
+    private final AtomicReference<State> state = new AtomicReference<>(State.QUEUED);
+
+    PendingPosting(TransactionDTO request) {
+        this.request = request;
+    }
+
+    /**
+     * Claims the posting for execution; false when its caller already gave up waiting.
+     */
+    boolean start() {
+        return state.compareAndSet(State.QUEUED, State.STARTED);
+    }
+
+    void complete(TransactionDTO result) {
+        future.complete(result);
+    }
+
+    void fail(RuntimeException error) {
+        future.completeExceptionally(error);
+    }
+
+    void complete(PostingResultDTO result) {
+        if (result.isSuccess()) {
+            complete(result.getData());
+        } else {
+            fail(result.toException());
+        }
+    }
+
+    /**
+     * Waits for the outcome. Business rejections are rethrown as-is, so callers see
+     * the same exception they would get from the direct service call.
+     * If the executor has not started the posting within {@code timeoutMs} it is cancelled and
+     * SERVICE_UNAVAILABLE is thrown; once started, the caller waits for the real outcome.
+     */
+    TransactionDTO await(long timeoutMs, String executor) throws BusinessException {
+        try {
+            try {
+                return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (state.compareAndSet(State.QUEUED, State.CANCELLED)) {
+                    throw new BusinessException(executor + " did not start the posting within " + timeoutMs + " ms",
+                            ResponseCode.SERVICE_UNAVAILABLE.name());
+                }
+                // Sudah berjalan di executor: tunggu hasil aslinya agar klien tidak memposting ulang
+                return future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new BusinessException("Posting failed on " + executor, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while waiting for " + executor, e);
+        }
+    }
+}
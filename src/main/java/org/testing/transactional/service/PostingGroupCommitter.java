@@ -0,0 +1,207 @@
+package org.testing.transactional.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.PostingResultDTO;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for transaction postings.
+ * Concurrent postings arriving within window-ms of the first one (or until max-batch items are
+ * queued) are written by {@link TransactionService#postBatch(List)} in a single transaction:
+ * one commit, JDBC-batched inserts into TEST_TRANSACTION and updates of TEST_CARD.
+ * Each caller still receives its own result or error. Worst-case added latency is the window.
+ */
+@ApplicationScoped
+public class PostingGroupCommitter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostingGroupCommitter.class);
+
+    @Inject
+    TransactionService transactionService;
+
+    @ConfigProperty(name = "transaction.group-commit.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction.group-commit.window-ms", defaultValue = "5")
+    long windowMs;
+
+    @ConfigProperty(name = "transaction.group-commit.max-batch", defaultValue = "200")
+    int maxBatch;
+
+    @ConfigProperty(name = "transaction.group-commit.queue-capacity", defaultValue = "10000")
+    int queueCapacity;
+
+    @ConfigProperty(name = "transaction.group-commit.timeout-ms", defaultValue = "5000")
+    long timeoutMs;
+
+    private BlockingQueue<PendingPosting> queue;
+    private Thread committer;
+    private volatile boolean running;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder postings = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        committer = new Thread(this::run, "posting-group-committer");
+        committer.setDaemon(true);
+        committer.start();
+        LOGGER.info("Group commit enabled: window {} ms, max batch {}", windowMs, maxBatch);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        committer.interrupt();
+        List<PendingPosting> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        leftovers.forEach(pending -> pending.fail(new BusinessException("Application is shutting down",
+                ResponseCode.SERVICE_UNAVAILABLE.name())));
+    }
+
+    public boolean isEnabled() {
+        return enabled && committer != null;
+    }
+
+    /**
+     * Queues a posting for the next group commit and waits for its own outcome.
+     * SERVICE_UNAVAILABLE means the posting was not and will not be executed.
+     */
+    public TransactionDTO submit(Transaction.TRX_TYPE_ENUM type, TransactionDTO dto) throws BusinessException {
+        dto.setTransactionType(type.name());
+        PendingPosting pending = new PendingPosting(dto);
+        if (!queue.offer(pending)) {
+            rejected.increment();
+            throw new BusinessException("Group commit queue is full, please retry",
+                    ResponseCode.SERVICE_UNAVAILABLE.name());
+        }
+        return pending.await(timeoutMs, "group committer");
+    }
+
+    public Map<String, Object> stats() {
+        long commitCount = commits.sum();
+        long postingCount = postings.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("queueDepth", queue == null ? 0 : queue.size());
+        stats.put("commits", commitCount);
+        stats.put("postings", postingCount);
+        stats.put("fallbacks", fallbacks.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("avgBatchSize", commitCount == 0 ? 0.0 : (double) postingCount / commitCount);
+        stats.put("avgLatencyMs", postingCount == 0 ? 0.0 : latencyNanos.sum() / 1_000_000.0 / postingCount);
+        stats.put("maxLatencyMs", maxLatencyNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    private void run() {
+        List<PendingPosting> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.fail(new BusinessException("Application is shutting down",
+                        ResponseCode.SERVICE_UNAVAILABLE.name())));
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Group commit of {} postings failed", batch.size(), e);
+                batch.forEach(pending -> pending.fail(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Blocks for the first posting, then keeps collecting until the window closes or the batch is full.
+     */
+    private void collect(List<PendingPosting> batch) throws InterruptedException {
+        PendingPosting first = queue.take();
+        batch.add(first);
+        long deadline = first.enqueuedAt + TimeUnit.MILLISECONDS.toNanos(windowMs);
+        while (batch.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            PendingPosting next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                queue.drainTo(batch, maxBatch - batch.size());
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingPosting> batch) {
+        // Claim sebelum postBatch: posting yang pemanggilnya sudah timeout dibuang, sisanya ditunggu
+        // pemanggilnya sampai selesai, termasuk lewat fallback satu per satu di bawah
+        int queued = batch.size();
+        batch.removeIf(pending -> !pending.start());
+        cancelled.add(queued - batch.size());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<TransactionDTO> requests = batch.stream().map(pending -> pending.request).toList();
+        try {
+            List<PostingResultDTO> results = transactionService.postBatch(requests);
+            for (int i = 0; i < batch.size(); i++) {
+                record(batch.get(i));
+                batch.get(i).complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            // The whole batch rolled back; isolate the culprit by posting one by one
+            LOGGER.warn("Group commit of {} postings rolled back, retrying one by one: {}", batch.size(), e.getMessage());
+            fallbacks.increment();
+            for (PendingPosting pending : batch) {
+                try {
+                    TransactionDTO result = transactionService.postInNewTransaction(pending.request);
+                    record(pending);
+                    pending.complete(result);
+                } catch (RuntimeException single) {
+                    record(pending);
+                    pending.fail(single);
+                }
+            }
+        }
+        commits.increment();
+    }
+
+    private void record(PendingPosting pending) {
+        long latency = System.nanoTime() - pending.enqueuedAt;
+        postings.increment();
+        latencyNanos.add(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+    }
+}
@@ -0,0 +1,187 @@
+package org.testing.transactional.service;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.dto.SettlementResult;
+import org.testing.transactional.repository.TransactionRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background settlement of PENDING top-ups.
+ * On every tick several threads repeatedly claim a batch of cards with FOR UPDATE SKIP LOCKED and
+ * settle them through {@link TransactionService#settlePendingBatch(int)}. Threads (and other nodes
+ * running the same worker) skip each other's claimed cards instead of waiting on them.
+ */
+@ApplicationScoped
+public class SettlementWorker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SettlementWorker.class);
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @ConfigProperty(name = "transaction.settlement.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "transaction.settlement.threads", defaultValue = "4")
+    int threads;
+
+    @ConfigProperty(name = "transaction.settlement.batch-size", defaultValue = "50")
+    int batchSize;
+
+    @ConfigProperty(name = "transaction.settlement.max-batches-per-run", defaultValue = "100")
+    int maxBatchesPerRun;
+
+    @ConfigProperty(name = "transaction.settlement.backlog-max-age", defaultValue = "1m")
+    Duration backlogMaxAge;
+
+    private ExecutorService executor;
+
+    private final LongAdder settledRows = new LongAdder();
+    private final LongAdder settledCards = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder batchLatencyNanos = new LongAdder();
+    private final AtomicLong maxBatchLatencyNanos = new AtomicLong();
+    private volatile double lastRunRowsPerSecond;
+    private volatile long backlogRows;
+    private volatile long backlogCards;
+    private volatile long backlogRefreshedAt;
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            AtomicInteger sequence = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "settlement-worker-" + sequence.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            LOGGER.info("Settlement worker enabled with {} threads, batch size {}", threads, batchSize);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Scheduled(every = "${transaction.settlement.interval:10s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void settlePending() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Callable<Long>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(this::drain);
+        }
+
+        long rows = 0;
+        for (Future<Long> future : executor.invokeAll(workers)) {
+            try {
+                rows += future.get();
+            } catch (ExecutionException e) {
+                LOGGER.error("Settlement thread failed", e.getCause());
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        lastRunRowsPerSecond = seconds > 0 ? rows / seconds : 0;
+
+        if (rows > 0) {
+            LOGGER.info("Settlement run settled {} rows in {} s ({} rows/s)",
+                    rows, String.format("%.2f", seconds), String.format("%.1f", lastRunRowsPerSecond));
+        }
+    }
+
+    /**
+     * Claims and settles batches until nothing unclaimed is left or the per-run limit is hit.
+     */
+    private long drain() {
+        long rows = 0;
+        for (int i = 0; i < maxBatchesPerRun && !Thread.currentThread().isInterrupted(); i++) {
+            long batchStart = System.nanoTime();
+            List<SettlementResult> settled;
+            try {
+                settled = transactionService.settlePendingBatch(batchSize);
+            } catch (RuntimeException e) {
+                failedBatches.increment();
+                LOGGER.error("Settlement batch failed", e);
+                return rows;
+            }
+            if (settled.isEmpty()) {
+                return rows;
+            }
+
+            long latency = System.nanoTime() - batchStart;
+            batches.increment();
+            batchLatencyNanos.add(latency);
+            maxBatchLatencyNanos.accumulateAndGet(latency, Math::max);
+
+            for (SettlementResult result : settled) {
+                rows += result.getSettledCount();
+                settledRows.add(result.getSettledCount());
+                settledCards.increment();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Backlog counts are two aggregate scans of TEST_TRANSACTION, so they are not taken on every tick:
+     * only when stats are read, and at most once per backlog-max-age.
+     */
+    @Transactional
+    void refreshBacklog() {
+        backlogRows = transactionRepository.countPendingTopups();
+        backlogCards = transactionRepository.countCardsWithPendingTopups();
+        backlogRefreshedAt = System.nanoTime();
+    }
+
+    public Map<String, Object> stats() {
+        if (executor != null
+                && (backlogRefreshedAt == 0 || System.nanoTime() - backlogRefreshedAt > backlogMaxAge.toNanos())) {
+            refreshBacklog();
+        }
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", executor != null);
+        stats.put("settledRows", settledRows.sum());
+        stats.put("settledCards", settledCards.sum());
+        stats.put("batches", batchCount);
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("lastRunRowsPerSecond", lastRunRowsPerSecond);
+        stats.put("avgBatchLatencyMs", batchCount == 0 ? 0.0 : batchLatencyNanos.sum() / 1_000_000.0 / batchCount);
+        stats.put("maxBatchLatencyMs", maxBatchLatencyNanos.get() / 1_000_000.0);
+        stats.put("backlogRows", backlogRows);
+        stats.put("backlogCards", backlogCards);
+        return stats;
+    }
+}
@@ -4,8 +4,13 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testing.transactional.dto.BalanceUpdateResult;
+import org.testing.transactional.dto.PostingResultDTO;
+import org.testing.transactional.dto.SettlementResult;
 import org.testing.transactional.dto.TransactionDTO;
 import org.testing.transactional.exeption.BusinessException;
 import org.testing.transactional.model.Card;
@@ -13,6 +18,15 @@ import org.testing.transactional.model.Transaction;
 import org.testing.transactional.repository.CardRepository;
 import org.testing.transactional.repository.TransactionRepository;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import static jakarta.transaction.Transactional.TxType.REQUIRES_NEW;
 
 @ApplicationScoped
@@ -20,6 +34,8 @@ public class TransactionService {
 
     public static final Logger LOGGER = LoggerFactory.getLogger(TransactionService.class);
 
+    private static final int MAX_JDBC_BATCH_SIZE = 500;
+
     @Inject
     TransactionRepository transactionRepository;
 
@@ -29,9 +45,164 @@ public class TransactionService {
     @Inject
     TransactionalDemoService transactionalDemoService;
 
+    @Inject
+    EntityCaches entityCaches;
+
+    /**
+     * When enabled, purchases and direct top-ups check and move the balance in one guarded
+     * UPDATE instead of a load / check / setBalance / flush cycle on the Card entity.
+     */
+    @ConfigProperty(name = "transaction.balance.atomic-update", defaultValue = "true")
+    boolean atomicBalanceUpdate;
+
     /* ===================== TOPUP PENDING ===================== */
     @Transactional(REQUIRES_NEW)
     public TransactionDTO crateTopup(TransactionDTO dto) throws BusinessException {
+        entityCaches.invalidateCards(List.of(dto.getCardNo()));
+        return topup(dto);
+    }
+
+    /* ===================== DIRECT TOPUP ===================== */
+    @Transactional(REQUIRES_NEW)
+    public TransactionDTO crateDirectTopup(TransactionDTO dto) throws BusinessException {
+        entityCaches.invalidateCards(List.of(dto.getCardNo()));
+        return directTopup(dto);
+    }
+
+    /* ===================== PURCHASE ===================== */
+    @Transactional(REQUIRES_NEW)
+    public TransactionDTO cratePurchase(TransactionDTO dto) throws BusinessException {
+        entityCaches.invalidateCards(List.of(dto.getCardNo()));
+        return purchase(dto);
+    }
+
+    /* ===================== GROUPED POSTING ===================== */
+
+    /**
+     * Posts a single operation, dispatched on {@code transactionType}, in its own transaction.
+     */
+    @Transactional(REQUIRES_NEW)
+    public TransactionDTO postInNewTransaction(TransactionDTO dto) throws BusinessException {
+        entityCaches.invalidateCards(List.of(dto.getCardNo()));
+        return post(dto);
+    }
+
+    /**
+     * Posts several operations in one transaction, in the given order.
+     * A business rejection (unknown card, insufficient balance) only fails its own item,
+     * because rejected operations never write anything. Any other exception rolls the
+     * whole group back and is rethrown so the caller can retry the items one by one.
+     */
+    @Transactional(REQUIRES_NEW)
+    public List<PostingResultDTO> postGroup(List<TransactionDTO> dtos) {
+        entityCaches.invalidateCards(dtos.stream().map(TransactionDTO::getCardNo).toList());
+        List<PostingResultDTO> results = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            TransactionDTO dto = dtos.get(i);
+            try {
+                results.add(PostingResultDTO.success(i, post(dto)));
+            } catch (BusinessException e) {
+                results.add(PostingResultDTO.failure(i, dto, e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Posts a batch of operations in one transaction with set-based I/O.
+     * Every touched card is locked by a single SELECT ... FOR UPDATE in cardNo order, so two
+     * batches can never deadlock; balances are then applied in memory in arrival order and the
+     * session is flushed once, sending TEST_TRANSACTION inserts and TEST_CARD updates as JDBC batches.
+     * Results are returned in input order, one per operation.
+     */
+    @Transactional(REQUIRES_NEW)
+    public List<PostingResultDTO> postBatch(List<TransactionDTO> dtos) {
+        Session session = transactionRepository.getEntityManager().unwrap(Session.class);
+        session.setJdbcBatchSize(Math.max(1, Math.min(dtos.size(), MAX_JDBC_BATCH_SIZE)));
+
+        Set<String> cardNos = dtos.stream()
+                .map(TransactionDTO::getCardNo)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        entityCaches.invalidateCards(cardNos);
+        Map<String, Card> cards = cardRepository.lockByCardNos(cardNos).stream()
+                .collect(Collectors.toMap(Card::getCardNo, Function.identity(), (first, duplicate) -> first));
+
+        PostingResultDTO[] results = new PostingResultDTO[dtos.size()];
+        List<BatchPosting> postings = new ArrayList<>(dtos.size());
+
+        for (int i = 0; i < dtos.size(); i++) {
+            TransactionDTO dto = dtos.get(i);
+            try {
+                Card card = cards.get(dto.getCardNo());
+                Transaction trx = applyInMemory(dto, card);
+                postings.add(new BatchPosting(i, trx, card.getBalance()));
+            } catch (BusinessException e) {
+                results[i] = PostingResultDTO.failure(i, dto, e);
+            }
+        }
+
+        // Satu flush: INSERT transaksi dan UPDATE saldo dikirim sebagai JDBC batch
+        transactionRepository.flush();
+
+        for (BatchPosting posting : postings) {
+            results[posting.index()] = PostingResultDTO.success(posting.index(),
+                    mapToDTO(posting.trx(), posting.balance()));
+        }
+
+        LOGGER.info("BATCH posted {} operations on {} cards, {} rejected",
+                dtos.size(), cards.size(), dtos.size() - postings.size());
+        return List.of(results);
+    }
+
+    /**
+     * Applies one operation to an already locked card and persists (without flushing) its Transaction row.
+     */
+    private Transaction applyInMemory(TransactionDTO dto, Card card) throws BusinessException {
+        Transaction.TRX_TYPE_ENUM type = parseType(dto.getTransactionType());
+        if (card == null) {
+            throw new BusinessException("Card Data Not Found : " + dto.getCardNo());
+        }
+
+        Transaction.TRX_STATUS_ENUM status = Transaction.TRX_STATUS_ENUM.SUCCESS;
+        switch (type) {
+            case TOPUP -> status = Transaction.TRX_STATUS_ENUM.PENDING;
+            case DIRECT_TOP -> card.setBalance(card.getBalance() + dto.getAmount());
+            case PURCHASE -> {
+                if (card.getBalance() < dto.getAmount()) {
+                    throw new BusinessException("Insufficient balance. Current: "
+                            + card.getBalance() + ", Required: " + dto.getAmount());
+                }
+                card.setBalance(card.getBalance() - dto.getAmount());
+            }
+            default -> throw new BusinessException("Unsupported transaction type: " + type, "VALIDATION_ERROR");
+        }
+
+        Transaction trx = buildTransaction(card.getCardNo(), card.getCardName(), card.getCardType(),
+                card.getAccountNumber(), type, dto.getAmount(), status);
+        transactionRepository.persist(trx);
+        return trx;
+    }
+
+    private TransactionDTO post(TransactionDTO dto) throws BusinessException {
+        Transaction.TRX_TYPE_ENUM type = parseType(dto.getTransactionType());
+        return switch (type) {
+            case TOPUP -> topup(dto);
+            case DIRECT_TOP -> directTopup(dto);
+            case PURCHASE -> purchase(dto);
+            default -> throw new BusinessException("Unsupported transaction type: " + type, "VALIDATION_ERROR");
+        };
+    }
+
+    private Transaction.TRX_TYPE_ENUM parseType(String transactionType) {
+        try {
+            return Transaction.TRX_TYPE_ENUM.valueOf(transactionType);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BusinessException("Unknown transaction type: " + transactionType, "VALIDATION_ERROR");
+        }
+    }
+
+    private TransactionDTO topup(TransactionDTO dto) throws BusinessException {
         // Cari kartu
         Card card = cardRepository.find("cardNo", dto.getCardNo())
                 .withLock(LockModeType.PESSIMISTIC_WRITE)
@@ -51,12 +222,14 @@ public class TransactionService {
         transactionRepository.persistAndFlush(trx);
 
         LOGGER.info("TOPUP PENDING persisted. ID: {}", trx.getId());
-        return mapToDTO(trx);
+        return mapToDTO(trx, card.getBalance());
     }
 
-    /* ===================== DIRECT TOPUP ===================== */
-    @Transactional(REQUIRES_NEW)
-    public TransactionDTO crateDirectTopup(TransactionDTO dto) throws BusinessException {
+    private TransactionDTO directTopup(TransactionDTO dto) throws BusinessException {
+        if (atomicBalanceUpdate) {
+            return directTopupAtomic(dto);
+        }
+
         // Cari kartu
         Card card = cardRepository.findByCardNo(dto.getCardNo()).orElseThrow(() -> new BusinessException("Card Data Not Found : " + dto.getCardNo()));
 
@@ -77,12 +250,14 @@ public class TransactionService {
         transactionRepository.persistAndFlush(trx);
 
         LOGGER.info("DIRECT TOPUP SUCCESS. ID: {}, New Balance: {}", trx.getId(), card.getBalance());
-        return mapToDTO(trx);
+        return mapToDTO(trx, card.getBalance());
     }
 
-    /* ===================== PURCHASE ===================== */
-    @Transactional(REQUIRES_NEW)
-    public TransactionDTO cratePurchase(TransactionDTO dto) throws BusinessException {
+    private TransactionDTO purchase(TransactionDTO dto) throws BusinessException {
+        if (atomicBalanceUpdate) {
+            return purchaseAtomic(dto);
+        }
+
         // Cari kartu
         Card card = cardRepository.findByCardNo(dto.getCardNo()).orElseThrow(() -> new BusinessException("Card Data Not Found : " + dto.getCardNo()));
 
@@ -109,10 +284,61 @@ public class TransactionService {
         transactionRepository.persistAndFlush(trx);
 
         LOGGER.info("PURCHASE SUCCESS. ID: {}, Remaining Balance: {}", trx.getId(), card.getBalance());
-        return mapToDTO(trx);
+        return mapToDTO(trx, card.getBalance());
+    }
+
+    /**
+     * Direct top-up as a single guarded credit; the new balance comes back with the update.
+     */
+    private TransactionDTO directTopupAtomic(TransactionDTO dto) throws BusinessException {
+        BalanceUpdateResult result = cardRepository.credit(dto.getCardNo(), dto.getAmount());
+        if (!result.isApplied()) {
+            throw new BusinessException("Card Data Not Found : " + dto.getCardNo());
+        }
+
+        Transaction trx = buildTransaction(result.getCardNo(), result.getCardName(), result.getCardType(),
+                result.getAccountNumber(), Transaction.TRX_TYPE_ENUM.DIRECT_TOP, dto.getAmount(), Transaction.TRX_STATUS_ENUM.SUCCESS);
+        transactionRepository.persistAndFlush(trx);
+
+        LOGGER.info("DIRECT TOPUP SUCCESS. ID: {}, New Balance: {}", trx.getId(), result.getBalance());
+        return mapToDTO(trx, result.getBalance());
     }
 
-    private TransactionDTO mapToDTO(Transaction trx) {
+    /**
+     * Purchase as a single guarded debit. Zero affected rows means the card is missing
+     * or the balance is short; only then is the card read again to tell the two apart.
+     */
+    private TransactionDTO purchaseAtomic(TransactionDTO dto) throws BusinessException {
+        BalanceUpdateResult result = cardRepository.debitIfSufficient(dto.getCardNo(), dto.getAmount());
+        if (!result.isApplied()) {
+            int current = cardRepository.findBalanceByCardNo(dto.getCardNo())
+                    .orElseThrow(() -> new BusinessException("Card Data Not Found : " + dto.getCardNo()));
+            throw new BusinessException("Insufficient balance. Current: "
+                    + current + ", Required: " + dto.getAmount());
+        }
+
+        Transaction trx = buildTransaction(result.getCardNo(), result.getCardName(), result.getCardType(),
+                result.getAccountNumber(), Transaction.TRX_TYPE_ENUM.PURCHASE, dto.getAmount(), Transaction.TRX_STATUS_ENUM.SUCCESS);
+        transactionRepository.persistAndFlush(trx);
+
+        LOGGER.info("PURCHASE SUCCESS. ID: {}, Remaining Balance: {}", trx.getId(), result.getBalance());
+        return mapToDTO(trx, result.getBalance());
+    }
+
+    private Transaction buildTransaction(String cardNo, String cardName, String cardType, String accountNumber,
+                                         Transaction.TRX_TYPE_ENUM type, int amount, Transaction.TRX_STATUS_ENUM status) {
+        Transaction trx = new Transaction();
+        trx.setCardName(cardName);
+        trx.setCardNo(cardNo);
+        trx.setCardType(cardType);
+        trx.setAccountNumber(accountNumber);
+        trx.setTransactionType(type.name());
+        trx.setAmount(amount);
+        trx.setStatus(status.name());
+        return trx;
+    }
+
+    static TransactionDTO mapToDTO(Transaction trx, int balance) {
         TransactionDTO dto = new TransactionDTO();
         dto.setId(trx.getId());
         dto.setCardName(trx.getCardName());
@@ -123,59 +349,51 @@ public class TransactionService {
         dto.setStatus(trx.getStatus());
         dto.setTransactionType(trx.getTransactionType());
         dto.setCreatedAt(trx.getCreatedAt());
-        // Ambil saldo langsung dari tabel test_card
-        Card card = cardRepository.find("cardNo", trx.getCardNo()).firstResult();
-        if (card != null) {
-            dto.setBalance(card.getBalance());
-        }
+        // Saldo sudah diketahui oleh caller, tidak perlu query TEST_CARD lagi
+        dto.setBalance(balance);
         return dto;
     }
 
     @Transactional(value = REQUIRES_NEW)
     public TransactionDTO crateUpdateBalance(TransactionDTO topDto) throws BusinessException {
+        entityCaches.invalidateCards(List.of(topDto.getCardNo()));
+        return settle(topDto.getCardNo());
+    }
 
-        // Cari card
-        Card card = cardRepository
-                .findByCardNo(topDto.getCardNo())
-                .orElseThrow(() ->
-                        new BusinessException("Card Data Not Found : " + topDto.getCardNo())
-                );
-
-        // Ambil semua transaksi TOPUP yang masih PENDING berdasarkan cardNo
-        var pendingTopups = transactionRepository.find(
-                "cardNo = ?1 and transactionType = ?2 and status = ?3",
-                topDto.getCardNo(),
-                Transaction.TRX_TYPE_ENUM.TOPUP.name(),
-                Transaction.TRX_STATUS_ENUM.PENDING.name()
-        ).list();
-
-        if (pendingTopups.isEmpty()) {
-            throw new BusinessException("No pending TOPUP transactions found for cardNo: " + topDto.getCardNo());
-        }
-
-        // Hitung total amount dan update setiap transaksi menjadi SUCCESS
-        int totalAmount = 0;
-        for (Transaction trx : pendingTopups) {
-            totalAmount += trx.getAmount();
-            trx.setStatus(Transaction.TRX_STATUS_ENUM.SUCCESS.name());
-            transactionRepository.persist(trx); // Panache akan merge entity yg sudah managed
-        }
+    /**
+     * Claims a batch of cards with PENDING top-ups (FOR UPDATE SKIP LOCKED) and settles each of them
+     * in one transaction. Used by the background settlement worker; an empty list means no work was left
+     * that is not already being settled by someone else.
+     */
+    @Transactional(REQUIRES_NEW)
+    public List<SettlementResult> settlePendingBatch(int batchSize) {
+        List<String> cardNos = transactionRepository.claimCardsWithPendingTopups(batchSize);
+        entityCaches.invalidateCards(cardNos);
+        return transactionRepository.settlePendingTopups(cardNos);
+    }
 
-        // Update saldo kartu
-        card.setBalance(card.getBalance() + totalAmount);
-        cardRepository.persist(card);
+    /**
+     * Settles all PENDING top-ups of a card with set-based statements (see
+     * {@link TransactionRepository#settlePendingTopups(String)}); nothing is loaded as an entity.
+     */
+    private TransactionDTO settle(String cardNo) throws BusinessException {
+        SettlementResult settlement = transactionRepository.settlePendingTopups(cardNo);
 
-        transactionRepository.flush();
-        cardRepository.flush();
+        if (!settlement.isCardFound()) {
+            throw new BusinessException("Card Data Not Found : " + cardNo);
+        }
+        if (settlement.getSettledCount() == 0) {
+            throw new BusinessException("No pending TOPUP transactions found for cardNo: " + cardNo);
+        }
 
-        LOGGER.info("Update Balance Success. CardNo: {}, Added: {}, New Balance: {}",
-                topDto.getCardNo(), totalAmount, card.getBalance());
+        LOGGER.info("Update Balance Success. CardNo: {}, Settled: {} rows, Added: {}, New Balance: {}",
+                cardNo, settlement.getSettledCount(), settlement.getSettledAmount(), settlement.getBalance());
 
         // Kembalikan DTO ringkasan
         TransactionDTO result = new TransactionDTO();
-        result.setCardNo(card.getCardNo());
-        result.setAmount(totalAmount); // total penambahan saldo
-        result.setBalance(card.getBalance());
+        result.setCardNo(cardNo);
+        result.setAmount(settlement.getSettledAmount()); // total penambahan saldo
+        result.setBalance(settlement.getBalance());
         result.setStatus(Transaction.TRX_STATUS_ENUM.SUCCESS.name());
         result.setTransactionType(Transaction.TRX_TYPE_ENUM.UPDATE_BALANCE.name());
         result.setCreatedAt(java.time.LocalDateTime.now());
@@ -183,4 +401,6 @@ public class TransactionService {
         return result;
     }
 
+    private record BatchPosting(int index, Transaction trx, int balance) {
+    }
 }
@@ -0,0 +1,214 @@
+package org.testing.transactional.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.dto.UserDTO;
+import org.testing.transactional.dto.UserImportResultDTO;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.mapper.UserMapper;
+import org.testing.transactional.model.User;
+import org.testing.transactional.repository.DepartmentStatsReadModel;
+import org.testing.transactional.repository.UserEmailFilter;
+import org.testing.transactional.repository.UserRepository;
+import org.testing.transactional.repository.UserSearchIndex;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static jakarta.transaction.Transactional.TxType.REQUIRES_NEW;
+
+/**
+ * Bulk user import for large lists (100k+ rows).
+ * The list is cut into chunks of chunk-size; per chunk the email uniqueness check is one
+ * {@code email IN (...)} query and the inserts are one JDBC batch through a StatelessSession
+ * (no persistence context, no dirty checking), committed in its own transaction.
+ * Invalid or duplicate rows are reported per index and skipped; if a chunk still fails
+ * (e.g. another node inserted the same email meanwhile) only that chunk is retried row by row.
+ */
+@ApplicationScoped
+public class UserBulkImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserBulkImportService.class);
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    UserMapper userMapper;
+
+    @Inject
+    UserSearchIndex userSearchIndex;
+
+    @Inject
+    UserEmailFilter userEmailFilter;
+
+    @Inject
+    DepartmentStatsReadModel departmentStats;
+
+    @Inject
+    EntityCaches entityCaches;
+
+    @Inject
+    Validator validator;
+
+    @ConfigProperty(name = "user.bulk-import.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "user.bulk-import.max-items", defaultValue = "100000")
+    int maxItems;
+
+    /**
+     * Imports {@code users}; results are returned in input order, one per row.
+     */
+    public List<UserImportResultDTO> importAll(List<UserDTO> users, String createdBy) {
+        if (users.size() > maxItems) {
+            throw new BusinessException("Import exceeds the maximum of " + maxItems + " users",
+                    ResponseCode.VALIDATION_ERROR.name());
+        }
+
+        long start = System.nanoTime();
+        UserImportResultDTO[] results = new UserImportResultDTO[users.size()];
+        Set<String> seenEmails = new HashSet<>();
+        for (int from = 0; from < users.size(); from += chunkSize) {
+            importChunk(users, from, Math.min(from + chunkSize, users.size()), createdBy, seenEmails, results);
+        }
+
+        long created = 0;
+        for (UserImportResultDTO result : results) {
+            if (result.isSuccess()) {
+                created++;
+            }
+        }
+        LOGGER.info("Bulk import of {} users: {} created, {} rejected in {} ms",
+                users.size(), created, users.size() - created, (System.nanoTime() - start) / 1_000_000);
+        return List.of(results);
+    }
+
+    private void importChunk(List<UserDTO> users, int from, int to, String createdBy,
+                             Set<String> seenEmails, UserImportResultDTO[] results) {
+        // Checks that need no database: bean validation and duplicates inside the request
+        List<Integer> candidates = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            UserDTO dto = users.get(i);
+            String violations = dto == null ? "User is required" : violations(dto);
+            if (violations != null) {
+                results[i] = UserImportResultDTO.failure(i, dto == null ? null : dto.getEmail(),
+                        ResponseCode.VALIDATION_ERROR, violations);
+            } else if (dto.getEmail() != null && !seenEmails.add(dto.getEmail().toLowerCase(Locale.ROOT))) {
+                results[i] = UserImportResultDTO.failure(i, dto.getEmail(), ResponseCode.CONFLICT,
+                        "Duplicate email in import: " + dto.getEmail());
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // One set-based uniqueness check for the whole chunk
+        Set<String> existing = userRepository.findExistingEmails(
+                candidates.stream().map(i -> users.get(i).getEmail()).toList());
+        List<Integer> inserts = new ArrayList<>(candidates.size());
+        for (Integer i : candidates) {
+            String email = users.get(i).getEmail();
+            if (existing.contains(email)) {
+                results[i] = UserImportResultDTO.failure(i, email, ResponseCode.CONFLICT, "Email already exists: " + email);
+            } else {
+                inserts.add(i);
+            }
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+
+        List<User> created;
+        try {
+            created = insertChunk(inserts.stream().map(users::get).toList(), createdBy);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Import chunk of {} users rolled back, inserting one by one: {}", inserts.size(), e.getMessage());
+            insertOneByOne(users, inserts, createdBy, results);
+            return;
+        }
+
+        for (int k = 0; k < inserts.size(); k++) {
+            User user = created.get(k);
+            results[inserts.get(k)] = UserImportResultDTO.created(inserts.get(k), user.getEmail(), user.getId());
+            userSearchIndex.indexAfterCommit(user);
+        }
+    }
+
+    /**
+     * Inserts one chunk as a single JDBC batch in its own transaction.
+     */
+    @Transactional(REQUIRES_NEW)
+    List<User> insertChunk(List<UserDTO> dtos, String createdBy) {
+        List<User> users = new ArrayList<>(dtos.size());
+        for (UserDTO dto : dtos) {
+            User user = userMapper.toEntity(dto);
+            user.setCreatedBy(createdBy);
+            user.setUpdatedBy(createdBy);
+            users.add(user);
+            userEmailFilter.add(user.getEmail());
+            departmentStats.recordAfterCommit(null, DepartmentStatsReadModel.Snapshot.of(user));
+        }
+        try (StatelessSession session = entityManager.unwrap(Session.class)
+                .getSessionFactory().openStatelessSession()) {
+            session.setJdbcBatchSize(users.size());
+            session.insertMultiple(users);
+        }
+        for (User user : users) {
+            entityCaches.invalidateUser(user.getId(), user.getEmail());
+        }
+        return users;
+    }
+
+    private void insertOneByOne(List<UserDTO> users, List<Integer> inserts, String createdBy,
+                                UserImportResultDTO[] results) {
+        for (Integer i : inserts) {
+            UserDTO dto = users.get(i);
+            try {
+                UserDTO created = userService.createUserInNewTransaction(dto, createdBy);
+                results[i] = UserImportResultDTO.created(i, created.getEmail(), created.getId());
+            } catch (BusinessException e) {
+                results[i] = UserImportResultDTO.failure(i, dto.getEmail(), ResponseCode.CONFLICT,
+                        e.getErrorCode(), e.getMessage());
+            } catch (RuntimeException e) {
+                LOGGER.error("Importing user {} ({}) failed", i, dto.getEmail(), e);
+                results[i] = UserImportResultDTO.failure(i, dto.getEmail(), ResponseCode.DATABASE_ERROR,
+                        "Insert failed, please retry");
+            }
+        }
+    }
+
+    private String violations(UserDTO dto) {
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
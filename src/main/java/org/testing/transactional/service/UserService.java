@@ -6,9 +6,13 @@ import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.ValidationException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testing.transactional.common.PaginationRequest;
+import org.testing.transactional.common.ReadOnlyTransaction;
+import org.testing.transactional.dto.DepartmentStatsDTO;
+import org.testing.transactional.dto.PageResult;
 import org.testing.transactional.dto.UserDTO;
 import org.testing.transactional.dto.UserTransactionDTO;
 import org.testing.transactional.exeption.BusinessException;
@@ -18,15 +22,25 @@ import org.testing.transactional.model.Card;
 import org.testing.transactional.model.Transaction;
 import org.testing.transactional.model.User;
 import org.testing.transactional.repository.CardRepository;
+import org.testing.transactional.repository.DepartmentStatsReadModel;
+import org.testing.transactional.repository.DepartmentStatsReadModel.Snapshot;
 import org.testing.transactional.repository.TransactionRepository;
+import org.testing.transactional.repository.UserEmailFilter;
 import org.testing.transactional.repository.UserRepository;
+import org.testing.transactional.repository.UserSearchIndex;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static jakarta.transaction.Transactional.TxType.*;
 
@@ -48,10 +62,172 @@ public class UserService {
     UserMapper userMapper;
 
     @Inject
-    TransactionalDemoService transactionalDemoService;
+    AuditLogWriter auditLogWriter;
 
-    @Transactional
+    @Inject
+    OutboxService outboxService;
+
+    @Inject
+    UserSearchIndex userSearchIndex;
+
+    @Inject
+    UserEmailFilter userEmailFilter;
+
+    @Inject
+    DepartmentStatsReadModel departmentStats;
+
+    @Inject
+    EntityCaches entityCaches;
+
+    @ConfigProperty(name = "user.transaction.projection", defaultValue = "true")
+    boolean projectionRead;
+
+    @ConfigProperty(name = "user.transaction.fetch-size", defaultValue = "1000")
+    int projectionFetchSize;
+
+    @ConfigProperty(name = "user.transaction.history-limit", defaultValue = "20")
+    int historyLimit;
+
+    @ConfigProperty(name = "user.transaction.max-history-limit", defaultValue = "500")
+    int maxHistoryLimit;
+
+    /**
+     * Kartu dan transaksi milik user, dibatasi history-limit transaksi terbaru per kartu.
+     */
+    @ReadOnlyTransaction
     public UserTransactionDTO getUserTransaction(Long userId) {
+        return getUserTransaction(userId, historyLimit);
+    }
+
+    /**
+     * Kartu dan transaksi milik user.
+     * Default: dua query proyeksi (header user + kartu LEFT JOIN transaksi) yang langsung
+     * diisi ke UserTransactionDTO, tanpa entity managed dan tanpa dirty checking.
+     * Dengan perCardLimit > 0 hanya N transaksi terbaru per kartu yang diambil (ROW_NUMBER per kartu)
+     * dan CardDTO.nextCursor dipakai untuk halaman berikutnya; perCardLimit <= 0 mengambil semuanya.
+     */
+    @ReadOnlyTransaction
+    public UserTransactionDTO getUserTransaction(Long userId, int perCardLimit) {
+        if (!projectionRead) {
+            return getUserTransactionFromEntities(userId);
+        }
+
+        Object[] header = userRepository.findTransactionHeader(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        UserTransactionDTO dto = new UserTransactionDTO();
+        dto.setFirstname((String) header[0]);
+        dto.setLastname((String) header[1]);
+        dto.setEmail((String) header[2]);
+
+        List<UserTransactionDTO.CardDTO> cardDTOList = perCardLimit > 0
+                ? latestCardTransactions(userId, Math.min(perCardLimit, maxHistoryLimit))
+                : allCardTransactions(userId);
+
+        if (cardDTOList.isEmpty()) {
+            throw new RuntimeException("User has no card");
+        }
+        dto.setCards(cardDTOList);
+        return dto;
+    }
+
+    /**
+     * Halaman berikutnya dari history satu kartu (keyset: transaksi dengan ID di bawah cursor).
+     */
+    @ReadOnlyTransaction
+    public UserTransactionDTO.CardDTO getCardTransactionPage(Long userId, String cardNo, Long cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? historyLimit : Math.min(limit, maxHistoryLimit);
+
+        Object[] header = userRepository.findCardHeader(userId, cardNo)
+                .orElseThrow(() -> new ResourceNotFoundException("Card", cardNo));
+        UserTransactionDTO.CardDTO card = toCardDTO(header[0], header[1], header[2]);
+
+        // Satu baris ekstra hanya untuk mengetahui apakah masih ada halaman berikutnya
+        List<Object[]> rows = transactionRepository.findHistoryPage(cardNo, cursor, pageSize + 1);
+        for (int i = 0; i < Math.min(rows.size(), pageSize); i++) {
+            Object[] row = rows.get(i);
+            card.getTransaction().add(toTransactionDTO(row[1], row[2], row[3], row[4]));
+        }
+        if (rows.size() > pageSize) {
+            card.setNextCursor(((Number) rows.get(pageSize - 1)[0]).longValue());
+        }
+        return card;
+    }
+
+    private List<UserTransactionDTO.CardDTO> latestCardTransactions(Long userId, int perCardLimit) {
+        List<UserTransactionDTO.CardDTO> cardDTOList = new ArrayList<>();
+        try (Stream<Object[]> rows = userRepository.streamLatestCardTransactions(userId, perCardLimit + 1)) {
+            UserTransactionDTO.CardDTO current = null;
+            long lastTrxId = 0;
+            for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); ) {
+                Object[] row = it.next();
+                if (current == null || !current.getCardNo().equals(row[0])) {
+                    current = toCardDTO(row[0], row[1], row[2]);
+                    cardDTOList.add(current);
+                }
+                if (row[3] == null) {
+                    continue;
+                }
+                if (current.getTransaction().size() == perCardLimit) {
+                    // Baris ke N+1: masih ada transaksi yang lebih lama
+                    current.setNextCursor(lastTrxId);
+                    continue;
+                }
+                current.getTransaction().add(toTransactionDTO(row[4], row[5], row[6], row[7]));
+                lastTrxId = ((Number) row[3]).longValue();
+            }
+        }
+        return cardDTOList;
+    }
+
+    private List<UserTransactionDTO.CardDTO> allCardTransactions(Long userId) {
+        try (Stream<Object[]> rows = userRepository.streamCardTransactions(userId, projectionFetchSize)) {
+            return groupCardRows(rows.iterator());
+        }
+    }
+
+    /**
+     * Rows of streamCardTransactions (ordered by card) grouped into one CardDTO per card.
+     */
+    static List<UserTransactionDTO.CardDTO> groupCardRows(Iterator<Object[]> rows) {
+        List<UserTransactionDTO.CardDTO> cardDTOList = new ArrayList<>();
+        UserTransactionDTO.CardDTO current = null;
+        while (rows.hasNext()) {
+            Object[] row = rows.next();
+            if (current == null || !current.getCardNo().equals(row[0])) {
+                current = toCardDTO(row[0], row[1], row[2]);
+                cardDTOList.add(current);
+            }
+            if (row[4] != null) {
+                current.getTransaction().add(toTransactionDTO(row[3], row[4], row[5], row[6]));
+            }
+        }
+        return cardDTOList;
+    }
+
+    private static UserTransactionDTO.CardDTO toCardDTO(Object cardNo, Object accountNumber, Object balance) {
+        UserTransactionDTO.CardDTO card = new UserTransactionDTO.CardDTO();
+        card.setCardNo((String) cardNo);
+        card.setAccountNumber((String) accountNumber);
+        card.setBalance(((Number) balance).intValue());
+        card.setTransaction(new ArrayList<>());
+        return card;
+    }
+
+    private static UserTransactionDTO.TransactionDTO toTransactionDTO(Object cardType, Object transactionType,
+                                                              Object amount, Object status) {
+        UserTransactionDTO.TransactionDTO t = new UserTransactionDTO.TransactionDTO();
+        t.setCardType((String) cardType);
+        t.setTransactionType((String) transactionType);
+        t.setAmount(((Number) amount).intValue());
+        t.setStatus((String) status);
+        return t;
+    }
+
+    /**
+     * Jalur lama: User, Card dan Transaction di-load sebagai entity lalu dikelompokkan di memory.
+     */
+    private UserTransactionDTO getUserTransactionFromEntities(Long userId) {
         User user = userRepository.findByIdOptional(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -122,6 +298,10 @@ public class UserService {
 
         // Simpan ke DB
         userRepository.persist(user);
+        userEmailFilter.add(user.getEmail());
+        userSearchIndex.indexAfterCommit(user);
+        entityCaches.invalidateUser(user.getId(), user.getEmail());
+        departmentStats.recordAfterCommit(null, Snapshot.of(user));
 
         // Contoh pemicu SQLException (simulasi)
         if ("error".equalsIgnoreCase(dto.getFirstName())) {
@@ -150,6 +330,10 @@ public class UserService {
 
         userRepository.persist(user);
         userRepository.flush();
+        userEmailFilter.add(user.getEmail());
+        userSearchIndex.indexAfterCommit(user);
+        entityCaches.invalidateUser(user.getId(), user.getEmail());
+        departmentStats.recordAfterCommit(null, Snapshot.of(user));
 
         // Contoh pemicu SQLException (simulasi)
         if ("error".equalsIgnoreCase(userDTO.getFirstName())) {
@@ -175,6 +359,10 @@ public class UserService {
         user.setUpdatedBy(createdBy);
 
         userRepository.persist(user);
+        userEmailFilter.add(user.getEmail());
+        userSearchIndex.indexAfterCommit(user);
+        entityCaches.invalidateUser(user.getId(), user.getEmail());
+        departmentStats.recordAfterCommit(null, Snapshot.of(user));
 
         LOGGER.info("User created in new transaction with ID: {}", user.getId());
         return userMapper.toDTO(user);
@@ -189,12 +377,17 @@ public class UserService {
         LOGGER.info("Updating user {} with SUPPORTS propagation", userId);
 
         User existingUser = findUserEntityById(userId);
+        Snapshot before = Snapshot.of(existingUser);
         validateUserForUpdate(userDTO, userId);
 
         userMapper.updateEntityFromDTO(userDTO, existingUser);
         existingUser.setUpdatedBy(updatedBy);
 
         userRepository.persist(existingUser);
+        userEmailFilter.add(existingUser.getEmail());
+        userSearchIndex.indexAfterCommit(existingUser);
+        entityCaches.invalidateUser(existingUser.getId(), existingUser.getEmail());
+        departmentStats.recordAfterCommit(before, Snapshot.of(existingUser));
 
         LOGGER.info("User updated with SUPPORTS propagation: {}", userId);
         return userMapper.toDTO(existingUser);
@@ -222,9 +415,12 @@ public class UserService {
     public boolean deleteUserNever(Long userId, String updatedBy) {
         LOGGER.info("Soft deleting user {} with NEVER propagation (must not be in transaction)", userId);
 
+        List<Snapshot> before = userRepository.findStatsSnapshots(List.of(userId));
         boolean result = userRepository.softDelete(userId, updatedBy);
 
         if (result) {
+            recordActiveChange(before, false);
+            entityCaches.invalidateUser(userId, null);
             LOGGER.info("User soft deleted with NEVER propagation: {}", userId);
         } else {
             LOGGER.warn("Failed to soft delete user: {}", userId);
@@ -242,12 +438,17 @@ public class UserService {
         LOGGER.info("Updating user {} with MANDATORY propagation (must be in existing transaction)", userId);
 
         User existingUser = findUserEntityById(userId);
+        Snapshot before = Snapshot.of(existingUser);
         validateUserForUpdate(userDTO, userId);
 
         userMapper.updateEntityFromDTO(userDTO, existingUser);
         existingUser.setUpdatedBy(updatedBy);
 
         userRepository.persist(existingUser);
+        userEmailFilter.add(existingUser.getEmail());
+        userSearchIndex.indexAfterCommit(existingUser);
+        entityCaches.invalidateUser(existingUser.getId(), existingUser.getEmail());
+        departmentStats.recordAfterCommit(before, Snapshot.of(existingUser));
 
         LOGGER.info("User updated with MANDATORY propagation: {}", userId);
         return userMapper.toDTO(existingUser);
@@ -265,8 +466,8 @@ public class UserService {
         UserDTO createdUser = createUser(userDTO, operatedBy);
 
         try {
-            // Perform audit logging in separate transaction (REQUIRES_NEW)
-            transactionalDemoService.auditUserOperation("CREATE", createdUser.getId(), operatedBy);
+            // Audit is written to the outbox in this same transaction when the relay is enabled
+            outboxService.append(OutboxService.AGGREGATE_USER, createdUser.getId(), "CREATE", operatedBy);
 
             // Update some business logic (SUPPORTS)
             createdUser.setPosition("New Employee");
@@ -277,9 +478,9 @@ public class UserService {
 
         } catch (Exception e) {
             LOGGER.error("Error in complex business operation for user: {}", userDTO.getEmail(), e);
-            // Audit failure in separate transaction (won't rollback main transaction)
+            // The outbox row rolls back with this transaction, so the failure is audited outside of it
             try {
-                transactionalDemoService.auditUserOperation("CREATE_FAILED", createdUser.getId(), operatedBy);
+                auditLogWriter.record("CREATE_FAILED", createdUser.getId(), operatedBy);
             } catch (Exception auditException) {
                 LOGGER.error("Failed to audit operation failure", auditException);
             }
@@ -295,13 +496,30 @@ public class UserService {
     public List<UserDTO> bulkCreateUsersWithReadCommitted(List<UserDTO> users, String createdBy) {
         LOGGER.info("Bulk creating {} users with READ_COMMITTED isolation", users.size());
 
+        // Duplikat di dalam request sendiri ditolak sebelum persist, seperti emailExists yang auto-flush dulu
+        Set<String> requestEmails = new HashSet<>();
+        for (UserDTO dto : users) {
+            if (dto.getEmail() != null && !requestEmails.add(dto.getEmail().toLowerCase(Locale.ROOT))) {
+                throw new BusinessException("Email already exists: " + dto.getEmail());
+            }
+        }
+
+        // Satu query untuk semua email, bukan count(email) per user
+        Set<String> existing = userRepository.findExistingEmails(users.stream().map(UserDTO::getEmail).toList());
+        if (!existing.isEmpty()) {
+            throw new BusinessException("Email already exists: " + existing.iterator().next());
+        }
+
         List<User> createdUsers = users.stream()
                 .map(dto -> {
-                    validateUserForCreate(dto);
                     User user = userMapper.toEntity(dto);
                     user.setCreatedBy(createdBy);
                     user.setUpdatedBy(createdBy);
                     userRepository.persist(user);
+                    userEmailFilter.add(user.getEmail());
+                    userSearchIndex.indexAfterCommit(user);
+                    entityCaches.invalidateUser(user.getId(), user.getEmail());
+                    departmentStats.recordAfterCommit(null, Snapshot.of(user));
                     return user;
                 })
                 .toList();
@@ -315,12 +533,13 @@ public class UserService {
      */
 
     /**
-     * Gets user by ID with caching and transaction support.
+     * Gets user by ID from the users cache.
      */
+    // Cache/read model: tanpa transaksi sendiri, jadi cache hit tidak mengambil koneksi
     @Transactional(value = SUPPORTS)
     public UserDTO getUserById(Long userId) {
-        User user = findUserEntityById(userId);
-        return userMapper.toDTO(user);
+        return entityCaches.user(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
     }
 
     /**
@@ -329,12 +548,17 @@ public class UserService {
     @Transactional(value = REQUIRED)
     public UserDTO updateUser(Long userId, UserDTO userDTO, String updatedBy) {
         User existingUser = findUserEntityById(userId);
+        Snapshot before = Snapshot.of(existingUser);
         validateUserForUpdate(userDTO, userId);
 
         userMapper.updateEntityFromDTO(userDTO, existingUser);
         existingUser.setUpdatedBy(updatedBy);
 
         userRepository.persist(existingUser);
+        userEmailFilter.add(existingUser.getEmail());
+        userSearchIndex.indexAfterCommit(existingUser);
+        entityCaches.invalidateUser(existingUser.getId(), existingUser.getEmail());
+        departmentStats.recordAfterCommit(before, Snapshot.of(existingUser));
 
         return userMapper.toDTO(existingUser);
     }
@@ -342,17 +566,26 @@ public class UserService {
     /**
      * Gets paginated list of active users.
      */
-    @Transactional(value = SUPPORTS)
+    @ReadOnlyTransaction
     public List<UserDTO> getActiveUsers(PaginationRequest pagination) {
         PanacheQuery<User> query = userRepository.findActiveUsersPaginated(pagination);
         List<User> users = query.list();
         return userMapper.toDTOList(users);
     }
 
+    /**
+     * Page of active users plus the cursor for the next page (keyset mode only) and the total per totalMode.
+     */
+    @ReadOnlyTransaction
+    public PageResult<UserDTO> getActiveUsersPage(PaginationRequest pagination) {
+        PageResult<User> page = userRepository.findActiveUsersPage(pagination);
+        return page.withItems(userMapper.toDTOList(page.getItems()));
+    }
+
     /**
      * Searches users with advanced criteria.
      */
-    @Transactional(value = SUPPORTS)
+    @ReadOnlyTransaction
     public List<UserDTO> searchUsers(String searchTerm, String department, Boolean active,
                                      Double minSalary, Double maxSalary, PaginationRequest pagination) {
         PanacheQuery<User> query = userRepository.advancedSearch(
@@ -361,13 +594,23 @@ public class UserService {
         return userMapper.toDTOList(users);
     }
 
+    /**
+     * Search page plus the cursor for the next page (keyset mode only) and the total per totalMode.
+     */
+    @ReadOnlyTransaction
+    public PageResult<UserDTO> searchUsersPage(String searchTerm, String department, Boolean active,
+                                               Double minSalary, Double maxSalary, PaginationRequest pagination) {
+        PageResult<User> page = userRepository.advancedSearchPage(
+                searchTerm, department, active, minSalary, maxSalary, pagination);
+        return page.withItems(userMapper.toDTOList(page.getItems()));
+    }
+
     /**
      * Gets user by email with caching.
      */
     @Transactional(value = SUPPORTS)
     public Optional<UserDTO> getUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .map(userMapper::toDTO);
+        return entityCaches.userByEmail(email);
     }
 
     /**
@@ -376,7 +619,13 @@ public class UserService {
     @Transactional(value = REQUIRED)
     public boolean softDeleteUser(Long userId, String updatedBy) {
         User user = findUserEntityById(userId);
-        return userRepository.softDelete(userId, updatedBy);
+        // Search index tetap menyimpan user ini: filter ACTIVE diterapkan di database
+        boolean deleted = userRepository.softDelete(userId, updatedBy);
+        if (deleted) {
+            recordActiveChange(List.of(Snapshot.of(user)), false);
+            entityCaches.invalidateUser(userId, user.getEmail());
+        }
+        return deleted;
     }
 
     /**
@@ -384,13 +633,64 @@ public class UserService {
      */
     @Transactional(value = REQUIRED)
     public boolean restoreUser(Long userId, String updatedBy) {
-        return userRepository.restore(userId, updatedBy);
+        List<Snapshot> before = userRepository.findStatsSnapshots(List.of(userId));
+        boolean restored = userRepository.restore(userId, updatedBy);
+        if (restored) {
+            recordActiveChange(before, true);
+            entityCaches.invalidateUser(userId, null);
+        }
+        return restored;
     }
 
     /**
-     * Gets count of active users.
+     * Soft deletes many users with chunked, fixed-shape bulk updates; returns the number of rows updated.
+     */
+    @Transactional(value = REQUIRED)
+    public int softDeleteUsers(List<Long> userIds, String updatedBy) {
+        List<Snapshot> before = userRepository.findStatsSnapshots(userIds);
+        int updated = userRepository.softDeleteAll(userIds, updatedBy);
+        recordActiveChange(before, false);
+        entityCaches.invalidateUsers(userIds);
+        LOGGER.info("Soft deleted {} of {} requested users", updated, userIds.size());
+        return updated;
+    }
+
+    /**
+     * Restores many soft-deleted users at once.
+     */
+    @Transactional(value = REQUIRED)
+    public int restoreUsers(List<Long> userIds, String updatedBy) {
+        List<Snapshot> before = userRepository.findStatsSnapshots(userIds);
+        int updated = userRepository.restoreAll(userIds, updatedBy);
+        recordActiveChange(before, true);
+        entityCaches.invalidateUsers(userIds);
+        LOGGER.info("Restored {} of {} requested users", updated, userIds.size());
+        return updated;
+    }
+
+    /**
+     * Department statistics from the read model (falls back to the GROUP BY query until it is loaded).
      */
     @Transactional(value = SUPPORTS)
+    public List<DepartmentStatsDTO> getDepartmentStatistics() {
+        if (departmentStats.isReady()) {
+            return departmentStats.departmentStatistics();
+        }
+        return userRepository.getDepartmentStatistics().stream()
+                .map(row -> new DepartmentStatsDTO((String) row[0],
+                        ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue(),
+                        row[3] == null ? 0 : ((Number) row[3]).doubleValue(),
+                        row[4] == null ? null : ((Number) row[4]).doubleValue(),
+                        row[5] == null ? null : ((Number) row[5]).doubleValue(),
+                        row[6] == null ? null : ((Number) row[6]).doubleValue()))
+                .toList();
+    }
+
+    /**
+     * Gets count of active users.
+     */
+    @ReadOnlyTransaction
     public long getActiveUserCount() {
         return userRepository.countActiveUsers();
     }
@@ -401,6 +701,15 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + userId));
     }
 
+    /**
+     * Reports an active flag change to the department statistics; users already in that state are skipped.
+     */
+    private void recordActiveChange(List<Snapshot> before, boolean active) {
+        for (Snapshot snapshot : before) {
+            departmentStats.recordAfterCommit(snapshot, snapshot.withActive(active));
+        }
+    }
+
     private void validateUserForCreate(UserDTO userDTO) {
         if (userRepository.emailExists(userDTO.getEmail())) {
             throw new BusinessException("Email already exists: " + userDTO.getEmail());
@@ -0,0 +1,16 @@
+-- Backing table for the Idempotency-Key header on /api/transaction/topup, /purchase and /direct-topup.
+-- The key is the primary key, so a second reservation of the same key fails on any node.
+-- HTTP_STATUS / RESPONSE_BODY stay NULL while the first request is still running.
+CREATE TABLE TEST_IDEMPOTENCY_KEY (
+    IDEMPOTENCY_KEY VARCHAR2(100) NOT NULL,
+    ENDPOINT        VARCHAR2(50)  NOT NULL,
+    REQUEST_HASH    VARCHAR2(64)  NOT NULL,
+    HTTP_STATUS     NUMBER(3),
+    RESPONSE_BODY   CLOB,
+    CREATED_AT      TIMESTAMP     NOT NULL,
+    EXPIRES_AT      TIMESTAMP     NOT NULL,
+    CONSTRAINT PK_TEST_IDEMPOTENCY_KEY PRIMARY KEY (IDEMPOTENCY_KEY)
+);
+
+-- Serves the bulk cleanup: DELETE FROM TEST_IDEMPOTENCY_KEY WHERE EXPIRES_AT < :now
+CREATE INDEX IX_IDEMPOTENCY_KEY_EXPIRES ON TEST_IDEMPOTENCY_KEY (EXPIRES_AT);
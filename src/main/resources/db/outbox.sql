@@ -0,0 +1,24 @@
+-- Transactional outbox: events are inserted by the business transaction and drained by OutboxRelay.
+-- INCREMENT BY must equal IdBlockSizes.OUTBOX (1: ids follow allocation order, the relay drains them gap by gap).
+CREATE SEQUENCE OUTBOX_SEQ START WITH 1 INCREMENT BY 1 CACHE 100 ORDER;
+
+CREATE TABLE TEST_OUTBOX (
+    ID             NUMBER(19)     NOT NULL,
+    AGGREGATE_TYPE VARCHAR2(30)   NOT NULL,
+    AGGREGATE_ID   NUMBER(19),
+    EVENT_TYPE     VARCHAR2(50)   NOT NULL,
+    OPERATED_BY    VARCHAR2(50),
+    PAYLOAD        VARCHAR2(4000),
+    CREATED_AT     TIMESTAMP      NOT NULL,
+    CONSTRAINT PK_TEST_OUTBOX PRIMARY KEY (ID)
+);
+
+-- One row; the relay holding its lock (for the duration of one batch transaction) is the only one relaying.
+-- LAST_ID is the id of the last event relayed in order.
+CREATE TABLE OUTBOX_RELAY_LEASE (
+    ID      NUMBER(1)  NOT NULL,
+    LAST_ID NUMBER(19) DEFAULT 0 NOT NULL,
+    CONSTRAINT PK_OUTBOX_RELAY_LEASE PRIMARY KEY (ID)
+);
+INSERT INTO OUTBOX_RELAY_LEASE (ID, LAST_ID) VALUES (1, 0);
+COMMIT;
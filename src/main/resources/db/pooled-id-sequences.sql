@@ -0,0 +1,17 @@
+-- Switches entity ids to pooled-lo blocks (Quarkus' default optimizer when allocationSize > 1).
+-- INCREMENT BY must equal the allocationSize in org.testing.transactional.model.IdBlockSizes.
+-- Run once, before deploying the version that ships IdBlockSizes.
+
+-- TEST_TRANSACTION gets its own sequence instead of sharing CARD_SEQ.
+-- It starts above every id CARD_SEQ has handed out so far, so it can't collide with existing rows.
+DECLARE
+    v_start NUMBER;
+BEGIN
+    SELECT CARD_SEQ.NEXTVAL + 1 INTO v_start FROM DUAL;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE TRANSACTION_SEQ START WITH ' || v_start || ' INCREMENT BY 100 CACHE 20';
+END;
+/
+
+-- Existing sequences keep their position; the next NEXTVAL jumps a whole block ahead.
+ALTER SEQUENCE CARD_SEQ INCREMENT BY 50;
+ALTER SEQUENCE USER_SEQ INCREMENT BY 50;
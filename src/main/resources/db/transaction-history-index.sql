@@ -0,0 +1,4 @@
+-- Per-card history is read newest first (ROW_NUMBER() OVER (PARTITION BY CARD_NO ORDER BY ID DESC)
+-- and keyset pages WHERE CARD_NO = ? AND ID < ? ORDER BY ID DESC). With this index both stop after
+-- page-size entries per card instead of visiting the card's whole history.
+CREATE INDEX IX_TRANSACTION_CARD_ID ON TEST_TRANSACTION (CARD_NO, ID DESC);
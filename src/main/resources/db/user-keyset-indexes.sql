@@ -0,0 +1,6 @@
+-- Keyset paging seeks on (sort key, ID) instead of skipping OFFSET rows.
+-- One composite index per supported sort key turns every page into a short index range scan.
+CREATE INDEX IX_USERS_ACTIVE_CREATED_ID ON TEST_USERS (ACTIVE, CREATED_AT, ID);
+CREATE INDEX IX_USERS_ACTIVE_FIRST_NAME_ID ON TEST_USERS (ACTIVE, FIRST_NAME, ID);
+CREATE INDEX IX_USERS_DEPT_ACTIVE_CREATED_ID ON TEST_USERS (DEPARTMENT, ACTIVE, CREATED_AT, ID);
+-- EMAIL is already unique, so (EMAIL) alone is a total order; ID needs no index of its own.
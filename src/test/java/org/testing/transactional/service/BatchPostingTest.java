@@ -0,0 +1,153 @@
+package org.testing.transactional.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.repository.CardRepository;
+import org.testing.transactional.sqlcount.TestData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.testing.transactional.sqlcount.TestData.operation;
+
+/**
+ * POST /api/transaction/batch as JSON array and as NDJSON stream, with chunks of 2 and at most 5 operations.
+ */
+@QuarkusTest
+@TestProfile(BatchPostingTest.SmallBatchProfile.class)
+class BatchPostingTest {
+
+    private static final String BATCH = "/api/transaction/batch";
+
+    @Inject
+    TestData testData;
+
+    @Inject
+    CardRepository cardRepository;
+
+    @Test
+    void jsonBatchIsPostedInInputOrder() {
+        String cardNo = testData.createCard(testData.createUser());
+
+        given().contentType(ContentType.JSON).body(directTopups(cardNo, 3))
+                .when().post(BATCH)
+                .then().statusCode(200)
+                .body("data", hasSize(3))
+                .body("data.index", contains(0, 1, 2))
+                .body("data.success", everyItem(equalTo(true)));
+
+        assertEquals(300, balance(cardNo));
+    }
+
+    @Test
+    void jsonBatchOverTheLimitIsRejectedBeforeAnyPosting() {
+        String cardNo = testData.createCard(testData.createUser());
+
+        given().contentType(ContentType.JSON).body(directTopups(cardNo, 6))
+                .when().post(BATCH)
+                .then().statusCode(400);
+
+        assertEquals(0, balance(cardNo));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "null", "[]", "[null]"})
+    void jsonBatchWithoutOperationsIsAValidationError(String body) {
+        given().contentType(ContentType.JSON).body(body)
+                .when().post(BATCH)
+                .then().statusCode(400).body("responseCode", equalTo("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void ndjsonBatchIsPostedInInputOrder() {
+        String cardNo = testData.createCard(testData.createUser());
+
+        given().contentType("application/x-ndjson").body(ndjson(cardNo, 3))
+                .when().post(BATCH)
+                .then().statusCode(200)
+                .body("data", hasSize(3))
+                .body("data.index", contains(0, 1, 2))
+                .body("data.success", everyItem(equalTo(true)));
+
+        assertEquals(300, balance(cardNo));
+    }
+
+    @Test
+    void ndjsonBatchOverTheLimitKeepsTheResultsOfPostedChunks() {
+        String cardNo = testData.createCard(testData.createUser());
+
+        given().contentType("application/x-ndjson").body(ndjson(cardNo, 7))
+                .when().post(BATCH)
+                .then().statusCode(200)
+                .body("data", hasSize(6))
+                .body("data.index", contains(0, 1, 2, 3, 4, 5))
+                .body("data[4].success", equalTo(true))
+                .body("data[5].success", equalTo(false))
+                .body("data[5].errorCode", equalTo("VALIDATION_ERROR"));
+
+        assertEquals(500, balance(cardNo));
+    }
+
+    @Test
+    void ndjsonBatchStopsAtAMalformedLine() {
+        String cardNo = testData.createCard(testData.createUser());
+        String body = ndjson(cardNo, 3) + "{not json\n" + ndjson(cardNo, 1);
+
+        given().contentType("application/x-ndjson").body(body)
+                .when().post(BATCH)
+                .then().statusCode(200)
+                .body("data", hasSize(4))
+                .body("data.success", contains(true, true, true, false))
+                .body("data[3].index", equalTo(3))
+                .body("data[3].errorCode", equalTo("VALIDATION_ERROR"));
+
+        assertEquals(300, balance(cardNo));
+    }
+
+    private static List<TransactionDTO> directTopups(String cardNo, int count) {
+        List<TransactionDTO> operations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            operations.add(operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 100));
+        }
+        return operations;
+    }
+
+    private static String ndjson(String cardNo, int count) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("{\"cardNo\":\"").append(cardNo)
+                    .append("\",\"transactionType\":\"").append(Transaction.TRX_TYPE_ENUM.DIRECT_TOP.name())
+                    .append("\",\"amount\":100}\n");
+        }
+        return body.toString();
+    }
+
+    private int balance(String cardNo) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> cardRepository.findByCardNo(cardNo).orElseThrow().getBalance());
+    }
+
+    public static class SmallBatchProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("transaction.batch.chunk-size", "2",
+                    "transaction.batch.max-items", "5");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.testing.transactional.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.model.Card;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.repository.CardRepository;
+import org.testing.transactional.sqlcount.SqlCountProfile;
+import org.testing.transactional.sqlcount.SqlMeter;
+import org.testing.transactional.sqlcount.SqlReport;
+import org.testing.transactional.sqlcount.TestData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.testing.transactional.sqlcount.TestData.operation;
+
+/**
+ * SQL statement counts of the entity purchase path and of the Card fetch plans.
+ * The second-level cache is emptied before each measurement so every load really hits the database.
+ */
+@QuarkusTest
+@TestProfile(CardFetchPlanTest.EntityPostingProfile.class)
+class CardFetchPlanTest {
+
+    @Inject
+    TestData testData;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Inject
+    CardRepository cardRepository;
+
+    @Inject
+    SqlMeter sqlMeter;
+
+    @Test
+    void purchaseDoesNotLoadTheCardOwner() {
+        String cardNo = testData.createFundedCard();
+
+        sqlMeter.evictSecondLevelCache();
+        TransactionDTO[] result = new TransactionDTO[1];
+        SqlReport report = sqlMeter.measure(() -> result[0] = transactionService.cratePurchase(
+                operation(cardNo, Transaction.TRX_TYPE_ENUM.PURCHASE, 10)));
+
+        assertEquals(980, result[0].getBalance());
+        // SELECT card, UPDATE balance, INSERT transaction; the owner is never loaded
+        report.assertStatements(3).assertEntitiesLoadedAtMost(1).assertNoLazyFetches();
+    }
+
+    @Test
+    void withUserFetchPlanLoadsTheOwnerInTheSameStatement() {
+        String cardNo = testData.createCard(testData.createUser());
+
+        sqlMeter.evictSecondLevelCache();
+        sqlMeter.measure(() -> QuarkusTransaction.requiringNew().run(() -> {
+            Card card = cardRepository.findByCardNoWithUser(cardNo).orElseThrow();
+            assertTrue(Hibernate.isInitialized(card.getUser()));
+            assertFalse(card.getUser().getEmail().isEmpty());
+        })).assertStatements(1).assertNoLazyFetches();
+    }
+
+    @Test
+    void ownersOfManyCardsAreBatchFetched() {
+        List<String> cardNos = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            cardNos.add(testData.createCard(testData.createUser()));
+        }
+
+        sqlMeter.evictSecondLevelCache();
+        SqlReport report = sqlMeter.measure(() -> QuarkusTransaction.requiringNew().run(() -> {
+            List<Card> cards = cardRepository.list("cardNo in ?1", cardNos);
+            assertEquals(3, cards.size());
+            for (Card card : cards) {
+                assertFalse(Hibernate.isInitialized(card.getUser()));
+                card.getUser().getEmail();
+            }
+        }));
+
+        // One query for the cards, one IN (...) for all three owners
+        report.assertStatements(2);
+    }
+
+    public static class EntityPostingProfile extends SqlCountProfile {
+        @Override
+        protected Map<String, String> overrides() {
+            // Jalur entity: kartu dimuat, dicek dan di-update lewat dirty checking
+            return Map.of("transaction.balance.atomic-update", "false");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.testing.transactional.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.sqlcount.TestData;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.testing.transactional.service.IdempotencyTest.post;
+import static org.testing.transactional.sqlcount.TestData.operation;
+
+/**
+ * Once the retention has passed, an Idempotency-Key is free again, also for a different request.
+ */
+@QuarkusTest
+@TestProfile(IdempotencyExpiryTest.ShortRetentionProfile.class)
+class IdempotencyExpiryTest {
+
+    @Inject
+    TestData testData;
+
+    @Test
+    void expiredKeyIsReservedAgain() throws InterruptedException {
+        String cardNo = testData.createFundedCard();
+        String key = UUID.randomUUID().toString();
+
+        post("/direct-topup", key, operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 10)).then().statusCode(201);
+        Thread.sleep(1_500);
+
+        post("/direct-topup", key, operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 20))
+                .then().statusCode(201)
+                .header(IdempotencyService.REPLAYED_HEADER, nullValue())
+                .body("data.amount", equalTo(20));
+    }
+
+    public static class ShortRetentionProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("transaction.idempotency.retention", "1s");
+        }
+    }
+}
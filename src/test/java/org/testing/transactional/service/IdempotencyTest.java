@@ -0,0 +1,118 @@
+package org.testing.transactional.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.testing.transactional.common.ResponseCode;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.repository.TransactionRepository;
+import org.testing.transactional.sqlcount.TestData;
+
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.testing.transactional.sqlcount.TestData.operation;
+
+/**
+ * Idempotency-Key on the posting endpoints: a retry gets the stored response and posts nothing.
+ */
+@QuarkusTest
+class IdempotencyTest {
+
+    @Inject
+    TestData testData;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    TransactionRepository transactionRepository;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"TOPUP", "PURCHASE", "DIRECT_TOP"})
+    void retryReplaysTheStoredResponse(String type) {
+        String cardNo = testData.createFundedCard();
+        String key = UUID.randomUUID().toString();
+        Object request = operation(cardNo, Transaction.TRX_TYPE_ENUM.valueOf(type), 10);
+        long before = transactions(cardNo);
+
+        Response first = post(endpoint(type), key, request);
+        first.then().statusCode(201);
+        Response retry = post(endpoint(type), key, request);
+
+        retry.then().statusCode(201).header(IdempotencyService.REPLAYED_HEADER, equalTo("true"));
+        assertEquals(first.jsonPath().getMap("data"), retry.jsonPath().getMap("data"));
+        assertEquals(before + 1, transactions(cardNo));
+    }
+
+    @Test
+    void sameKeyWithAnotherRequestIsAConflict() {
+        String cardNo = testData.createFundedCard();
+        String key = UUID.randomUUID().toString();
+
+        post("/direct-topup", key, operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 10)).then().statusCode(201);
+        long before = transactions(cardNo);
+
+        post("/direct-topup", key, operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 20))
+                .then().statusCode(409).body("responseCode", equalTo("CONFLICT"));
+        assertEquals(before, transactions(cardNo));
+    }
+
+    @Test
+    void duplicateWhileTheFirstIsInFlightIsAConflict() {
+        String key = UUID.randomUUID().toString();
+        Object request = operation("in-flight", Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 10);
+
+        // Duplikat datang saat posting pertama masih berjalan (key sudah di-reserve, belum selesai)
+        BusinessException duplicate = assertThrows(BusinessException.class,
+                () -> idempotencyService.execute(key, "/direct-topup", request,
+                        () -> idempotencyService.execute(key, "/direct-topup", request,
+                                () -> jakarta.ws.rs.core.Response.ok().build())));
+
+        assertEquals("CONFLICT", duplicate.getErrorCode());
+    }
+
+    @Test
+    void keyIsReleasedWhenTheQueuedPostingWasSkipped() {
+        String key = UUID.randomUUID().toString();
+        Object request = operation("skipped", Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 10);
+
+        // Timeout di antrean: posting dibatalkan, jadi key harus bisa dipakai lagi
+        assertThrows(BusinessException.class,
+                () -> idempotencyService.execute(key, "/direct-topup", request, () -> {
+                    throw new BusinessException("queue timeout", ResponseCode.SERVICE_UNAVAILABLE.name());
+                }));
+        jakarta.ws.rs.core.Response retry = idempotencyService.execute(key, "/direct-topup", request,
+                () -> jakarta.ws.rs.core.Response.ok().build());
+
+        assertEquals(200, retry.getStatus());
+    }
+
+    static String endpoint(String type) {
+        return switch (Transaction.TRX_TYPE_ENUM.valueOf(type)) {
+            case TOPUP -> "/topup";
+            case PURCHASE -> "/purchase";
+            default -> "/direct-topup";
+        };
+    }
+
+    static Response post(String endpoint, String key, Object request) {
+        return given().contentType(ContentType.JSON)
+                .header(IdempotencyService.HEADER, key)
+                .body(request)
+                .when().post("/api/transaction" + endpoint);
+    }
+
+    private long transactions(String cardNo) {
+        return QuarkusTransaction.requiringNew().call(() -> transactionRepository.count("cardNo", cardNo));
+    }
+}
@@ -0,0 +1,46 @@
+package org.testing.transactional.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.common.KeysetCursor;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * A tampered keyset cursor is rejected as a validation error, whichever part of it is broken.
+ */
+@QuarkusTest
+class KeysetCursorTest {
+
+    @Test
+    void cursorThatIsNotATokenIsRejected() {
+        activeUsers("createdAt", "DESC", "not*base64")
+                .then().statusCode(400).body("responseCode", equalTo("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void cursorWithAnUnparsableDateIsRejected() {
+        String cursor = new KeysetCursor("createdAt", false, 1L, "not-a-date").encode();
+
+        activeUsers("createdAt", "DESC", cursor)
+                .then().statusCode(400).body("responseCode", equalTo("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void cursorWithAnUnparsableIdIsRejected() {
+        String cursor = new KeysetCursor("id", true, 1L, "abc").encode();
+
+        activeUsers("id", "ASC", cursor)
+                .then().statusCode(400).body("responseCode", equalTo("VALIDATION_ERROR"));
+    }
+
+    private static io.restassured.response.Response activeUsers(String sortBy, String direction, String cursor) {
+        return given()
+                .queryParam("keyset", true)
+                .queryParam("sortBy", sortBy)
+                .queryParam("sortDirection", direction)
+                .queryParam("cursor", cursor)
+                .when().get("/api/users/active");
+    }
+}
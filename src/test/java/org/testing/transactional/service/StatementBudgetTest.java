@@ -0,0 +1,70 @@
+package org.testing.transactional.service;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.sqlcount.SqlCountProfile;
+import org.testing.transactional.sqlcount.SqlMeter;
+import org.testing.transactional.sqlcount.TestData;
+
+import static io.restassured.RestAssured.given;
+import static org.testing.transactional.sqlcount.TestData.operation;
+
+/**
+ * SQL statement budgets of the hot paths; a failure prints every statement that was issued.
+ * Runs against the configured database, or against in-memory H2 with {@code ./mvnw test -Dh2}.
+ */
+@QuarkusTest
+@TestProfile(SqlCountProfile.class)
+class StatementBudgetTest {
+
+    @Inject
+    SqlMeter sqlMeter;
+
+    @Inject
+    TestData testData;
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    TransactionService transactionService;
+
+    @Test
+    void purchase() {
+        String cardNo = testData.createFundedCard();
+
+        sqlMeter.measure(() -> transactionService.cratePurchase(operation(cardNo, Transaction.TRX_TYPE_ENUM.PURCHASE, 10)))
+                .assertStatementsAtMost(3)
+                .assertNoLazyFetches();
+    }
+
+    @Test
+    void userTransaction() {
+        Long userId = testData.createUserWithHistory();
+
+        sqlMeter.measure(() -> userService.getUserTransaction(userId))
+                .assertStatementsAtMost(2)
+                .assertNoLazyFetches();
+    }
+
+    @Test
+    void userTransactionEndpoint() {
+        Long userId = testData.createUserWithHistory();
+
+        sqlMeter.measure(() -> given().when().get("/api/users/{userId}", userId).then().statusCode(200))
+                .assertStatementsAtMost(2)
+                .assertNoLazyFetches();
+    }
+
+    @Test
+    void cachedUserById() {
+        Long userId = testData.createUser();
+        userService.getUserById(userId);
+
+        sqlMeter.measure(() -> userService.getUserById(userId))
+                .assertStatements(0);
+    }
+}
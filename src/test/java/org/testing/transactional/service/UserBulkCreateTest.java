@@ -0,0 +1,43 @@
+package org.testing.transactional.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.testing.transactional.dto.UserDTO;
+import org.testing.transactional.exeption.BusinessException;
+import org.testing.transactional.repository.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bulk creation rejects an email that appears twice in the same request before anything is persisted.
+ */
+@QuarkusTest
+class UserBulkCreateTest {
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Test
+    void duplicateEmailInsideTheRequestIsRejected() {
+        String email = "bulk-" + System.nanoTime() + "@example.com";
+        List<UserDTO> users = List.of(
+                new UserDTO("Bulk", "One", email),
+                new UserDTO("Bulk", "Two", email.toUpperCase()));
+
+        BusinessException error = assertThrows(BusinessException.class,
+                () -> userService.bulkCreateUsersWithReadCommitted(users, "test"));
+
+        assertTrue(error.getMessage().startsWith("Email already exists"));
+        assertEquals(0L, (long) QuarkusTransaction.requiringNew()
+                .call(() -> userRepository.count("lower(email) = ?1", email)));
+    }
+}
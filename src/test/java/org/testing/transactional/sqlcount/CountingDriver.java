@@ -0,0 +1,120 @@
+package org.testing.transactional.sqlcount;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.ServiceLoader;
+import java.util.logging.Logger;
+
+/**
+ * JDBC driver that hands every URL to the real driver on the classpath and records the SQL of each
+ * statement prepared or executed on its connections in {@link SqlStatementRecorder}. Sitting below
+ * Hibernate it also sees raw JDBC ({@code Session.doWork}, {@code doReturningWork}), e.g. the Oracle
+ * RETURNING block of the atomic balance update. Switched on by {@link SqlCountProfile}.
+ */
+public class CountingDriver implements Driver {
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        Driver target = target(url);
+        if (target == null) {
+            return null;
+        }
+        Connection connection = target.connect(url, info);
+        return connection == null ? null : proxy(Connection.class, connection, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public boolean acceptsURL(String url) throws SQLException {
+        return target(url) != null;
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        Driver target = target(url);
+        return target == null ? new DriverPropertyInfo[0] : target.getPropertyInfo(url, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private static Driver target(String url) throws SQLException {
+        // ServiceLoader dengan classloader sendiri; DriverManager menolak driver dari classloader Quarkus
+        for (Driver driver : ServiceLoader.load(Driver.class, CountingDriver.class.getClassLoader())) {
+            if (!(driver instanceof CountingDriver) && driver.acceptsURL(url)) {
+                return driver;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(CountingDriver.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Records prepared and callable statements when they are prepared (once, however often they are
+     * executed or batched) and wraps plain statements so their SQL is recorded on execute.
+     */
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = CountingDriver.invoke(target, method, args);
+            if (result instanceof CallableStatement || result instanceof PreparedStatement) {
+                SqlStatementRecorder.record((String) args[0]);
+            } else if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, new StatementHandler(statement));
+            }
+            return result;
+        }
+    }
+
+    private record StatementHandler(Statement target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().startsWith("execute") && args != null && args.length > 0 && args[0] instanceof String sql) {
+                SqlStatementRecorder.record(sql);
+            } else if (method.getName().equals("addBatch") && args != null && args.length == 1) {
+                SqlStatementRecorder.record((String) args[0]);
+            }
+            return CountingDriver.invoke(target, method, args);
+        }
+    }
+}
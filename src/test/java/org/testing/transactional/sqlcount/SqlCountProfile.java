@@ -0,0 +1,24 @@
+package org.testing.transactional.sqlcount;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test profile that routes the datasource through {@link CountingDriver}, required by every test
+ * using {@link SqlMeter}. Subclasses add their own overrides with {@link #overrides()}.
+ */
+public class SqlCountProfile implements QuarkusTestProfile {
+
+    @Override
+    public final Map<String, String> getConfigOverrides() {
+        Map<String, String> config = new HashMap<>(overrides());
+        config.put("quarkus.datasource.jdbc.driver", CountingDriver.class.getName());
+        return config;
+    }
+
+    protected Map<String, String> overrides() {
+        return Map.of();
+    }
+}
@@ -0,0 +1,54 @@
+package org.testing.transactional.sqlcount;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+
+/**
+ * Measures the SQL a block of code issues, e.g. one service call or one REST request:
+ * <pre>
+ * SqlReport report = sqlMeter.measure(() -> transactionService.cratePurchase(dto));
+ * report.assertStatementsAtMost(3);
+ * </pre>
+ * Statements are counted below Hibernate by {@link CountingDriver}, so the test must run with
+ * {@link SqlCountProfile}; entity and row counts come from Hibernate statistics (switched on here if the
+ * profile did not). Both are global, so measurements must not overlap with other database work;
+ * scheduled jobs should be off.
+ */
+@ApplicationScoped
+public class SqlMeter {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    public synchronized SqlReport measure(Runnable work) {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        SqlStatementRecorder.start();
+        List<String> statements;
+        try {
+            work.run();
+        } finally {
+            statements = SqlStatementRecorder.stop();
+        }
+
+        long rowsFetched = 0;
+        for (String query : statistics.getQueries()) {
+            rowsFetched += statistics.getQueryStatistics(query).getExecutionRowCount();
+        }
+        return new SqlReport(statements.size(), statements, rowsFetched,
+                statistics.getEntityLoadCount(), statistics.getEntityFetchCount(),
+                statistics.getCollectionFetchCount(), statistics.getSecondLevelCacheHitCount());
+    }
+
+    /**
+     * Empties the second-level cache, so the next measurement sees every load as a statement.
+     */
+    public void evictSecondLevelCache() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,54 @@
+package org.testing.transactional.sqlcount;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * What one {@link SqlMeter#measure} saw:
+ * <ul>
+ *   <li>statements - JDBC statements prepared or executed, Hibernate and raw JDBC alike, with their SQL in {@code sql}</li>
+ *   <li>rowsFetched - rows returned by HQL and native queries</li>
+ *   <li>entitiesLoaded - entities loaded from the database (not from the second-level cache)</li>
+ *   <li>entityFetches / collectionFetches - lazy proxies and collections initialized on access, the N+1 signal</li>
+ * </ul>
+ */
+public record SqlReport(long statements, List<String> sql, long rowsFetched, long entitiesLoaded,
+                        long entityFetches, long collectionFetches, long secondLevelCacheHits) {
+
+    public SqlReport assertStatementsAtMost(int max) {
+        assertTrue(statements <= max, "Expected at most " + max + " statements but was " + this);
+        return this;
+    }
+
+    public SqlReport assertStatements(int expected) {
+        assertEquals(expected, statements, () -> "Unexpected statement count: " + this);
+        return this;
+    }
+
+    public SqlReport assertNoLazyFetches() {
+        assertEquals(0, entityFetches + collectionFetches, () -> "Lazy fetches (N+1): " + this);
+        return this;
+    }
+
+    public SqlReport assertEntitiesLoadedAtMost(int max) {
+        assertTrue(entitiesLoaded <= max, "Expected at most " + max + " entities loaded but was " + this);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder()
+                .append(statements).append(" statements, ")
+                .append(rowsFetched).append(" rows, ")
+                .append(entitiesLoaded).append(" entities loaded, ")
+                .append(entityFetches).append(" entity fetches, ")
+                .append(collectionFetches).append(" collection fetches, ")
+                .append(secondLevelCacheHits).append(" L2 hits");
+        for (String statement : sql) {
+            text.append("\n  ").append(statement);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package org.testing.transactional.sqlcount;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the text of every SQL statement sent through {@link CountingDriver} while a recording is open,
+ * whatever thread it runs on (test thread, REST worker, REQUIRES_NEW loader).
+ * Static, because the driver is created by the connection pool and not by CDI.
+ */
+final class SqlStatementRecorder {
+
+    private static List<String> recorded;
+
+    private SqlStatementRecorder() {
+    }
+
+    static synchronized void record(String sql) {
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+    }
+
+    static synchronized void start() {
+        recorded = new ArrayList<>();
+    }
+
+    static synchronized List<String> stop() {
+        List<String> statements = recorded == null ? List.of() : List.copyOf(recorded);
+        recorded = null;
+        return statements;
+    }
+}
@@ -0,0 +1,72 @@
+package org.testing.transactional.sqlcount;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.testing.transactional.dto.CardDTO;
+import org.testing.transactional.dto.TransactionDTO;
+import org.testing.transactional.dto.UserDTO;
+import org.testing.transactional.model.Transaction;
+import org.testing.transactional.service.CardService;
+import org.testing.transactional.service.TransactionService;
+import org.testing.transactional.service.UserService;
+import org.testing.transactional.utils.Generator;
+
+/**
+ * Users, cards and postings for tests, created through the services like a client would.
+ */
+@ApplicationScoped
+public class TestData {
+
+    @Inject
+    UserService userService;
+
+    @Inject
+    CardService cardService;
+
+    @Inject
+    TransactionService transactionService;
+
+    public Long createUser() {
+        UserDTO user = new UserDTO("Test", "Data", "test-data-" + System.nanoTime() + "@example.com");
+        return userService.createUser(user, "test").getId();
+    }
+
+    public String createCard(Long userId) {
+        CardDTO card = new CardDTO(Generator.accountNumber(), "EXPRESI", "DEBIT");
+        card.setUserId(userId);
+        return cardService.createCard(card).getCardNo();
+    }
+
+    /**
+     * A new card with a balance of 990: topped up by 1000, then one purchase of 10, so the
+     * TRANSACTION_SEQ id block is already allocated when the test measures the next posting.
+     */
+    public String createFundedCard() {
+        String cardNo = createCard(createUser());
+        transactionService.crateDirectTopup(operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 1_000));
+        transactionService.cratePurchase(operation(cardNo, Transaction.TRX_TYPE_ENUM.PURCHASE, 10));
+        return cardNo;
+    }
+
+    /**
+     * A user with two cards of three direct top-ups each.
+     */
+    public Long createUserWithHistory() {
+        Long userId = createUser();
+        for (int c = 0; c < 2; c++) {
+            String cardNo = createCard(userId);
+            for (int i = 0; i < 3; i++) {
+                transactionService.crateDirectTopup(operation(cardNo, Transaction.TRX_TYPE_ENUM.DIRECT_TOP, 100));
+            }
+        }
+        return userId;
+    }
+
+    public static TransactionDTO operation(String cardNo, Transaction.TRX_TYPE_ENUM type, int amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setCardNo(cardNo);
+        dto.setTransactionType(type.name());
+        dto.setAmount(amount);
+        return dto;
+    }
+}